@@ -0,0 +1,17 @@
+#!/usr/bin/env sh
+# Compares SqlRequestLogRepository write throughput on SQLite with and without
+# track4j.sqlite.high-throughput: 500 batches of 100 rows from 4 threads.
+set -e
+
+cd "$(dirname "$0")/.."
+SQLITE_JDBC_VERSION="${SQLITE_JDBC_VERSION:-3.46.1.3}"
+
+mvn -B -q test-compile
+mvn -B -q dependency:build-classpath -Dmdep.outputFile=target/benchmark.classpath
+mvn -B -q dependency:copy -Dartifact="org.xerial:sqlite-jdbc:$SQLITE_JDBC_VERSION" -DoutputDirectory=target/benchmark-lib
+
+for mode in default high-throughput; do
+    rm -f target/sqlite-benchmark-$mode.db*
+    java -cp "src/test/resources/benchmark/$mode:target/classes:target/test-classes:$(cat target/benchmark.classpath):target/benchmark-lib/sqlite-jdbc-$SQLITE_JDBC_VERSION.jar" \
+        io.track4j.benchmark.SqliteThroughputBenchmark
+done
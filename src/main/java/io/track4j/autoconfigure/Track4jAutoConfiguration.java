@@ -9,13 +9,16 @@ import io.track4j.trackers.IncomingRequestTrackingFilter;
 import io.track4j.properties.Track4jProperties;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.web.client.RestTemplate;
 
+@Import(Track4jMetricsConfiguration.class)
 public class Track4jAutoConfiguration {
 
     @PostConstruct
@@ -43,6 +46,7 @@ public class Track4jAutoConfiguration {
         FilterRegistrationBean<IncomingRequestTrackingFilter> registrationBean = new FilterRegistrationBean<>();
         registrationBean.setFilter(new IncomingRequestTrackingFilter());
         registrationBean.addUrlPatterns("/*");
+        registrationBean.setDispatcherTypes(DispatcherType.REQUEST, DispatcherType.ASYNC);
         registrationBean.setOrder(properties.getFilterOrder());
         registrationBean.setEnabled(properties.isIncomingRequestTrackingEnabled());
 
@@ -0,0 +1,22 @@
+package io.track4j.autoconfigure;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.track4j.metrics.micrometer.Track4jMeterBinder;
+import io.track4j.service.RequestLogService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+@ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+public class Track4jMetricsConfiguration {
+
+    @Bean
+    public MeterBinder track4jMeterBinder() {
+        return new Track4jMeterBinder(
+                () -> Track4jServiceManager.getInstance().getMetrics(),
+                () -> {
+                    RequestLogService requestLogService = Track4jServiceManager.getInstance().getRequestLogService();
+                    return requestLogService != null ? requestLogService.getRepository() : null;
+                }
+        );
+    }
+}
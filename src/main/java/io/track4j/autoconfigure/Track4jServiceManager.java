@@ -1,5 +1,7 @@
 package io.track4j.autoconfigure;
 
+import io.track4j.helper.HeaderPolicy;
+import io.track4j.metrics.Track4jMetrics;
 import io.track4j.trackers.RestTemplateTrackingInterceptor;
 import io.track4j.properties.Track4jProperties;
 import io.track4j.repository.RequestLogRepositoryAdapter;
@@ -15,6 +17,7 @@ public final class Track4jServiceManager {
     private RequestLogService requestLogService;
     private RestTemplateTrackingInterceptor restTemplateTrackingInterceptor;
     private SerializationService serializationService;
+    private Track4jShutdownCoordinator shutdownCoordinator;
 
     private Track4jServiceManager() {
     }
@@ -33,7 +36,7 @@ public final class Track4jServiceManager {
         return instance;
     }
 
-    public static void shutdown() {
+    public static synchronized void shutdown() {
         if (instance != null) {
             instance.stop();
             instance = null;
@@ -47,16 +50,21 @@ public final class Track4jServiceManager {
             return;
         }
 
-        RequestLogRepositoryAdapter requestLogRepositoryAdapter = new RequestLogRepositoryFactory(properties).getAdapter();
-        serializationService = new SerializationService();
+        RequestLogRepositoryFactory repositoryFactory = new RequestLogRepositoryFactory(properties);
+        RequestLogRepositoryAdapter requestLogRepositoryAdapter = repositoryFactory.getAdapter();
+        serializationService = new SerializationService(HeaderPolicy.from(properties));
 
-        requestLogService = new RequestLogService(requestLogRepositoryAdapter, properties);
-        restTemplateTrackingInterceptor = new RestTemplateTrackingInterceptor(requestLogService);
+        requestLogService = new RequestLogService(requestLogRepositoryAdapter, properties, serializationService);
+        restTemplateTrackingInterceptor = new RestTemplateTrackingInterceptor(requestLogService, serializationService, properties);
+
+        shutdownCoordinator = new Track4jShutdownCoordinator(
+                requestLogService, repositoryFactory.getDataSourceManager(), properties.getShutdownTimeout());
+        shutdownCoordinator.registerShutdownHook();
     }
 
     private void stop() {
-        if (requestLogService != null) {
-            requestLogService.shutdown();
+        if (shutdownCoordinator != null) {
+            shutdownCoordinator.shutdown();
         }
     }
 
@@ -68,6 +76,10 @@ public final class Track4jServiceManager {
         return requestLogService;
     }
 
+    public Track4jMetrics getMetrics() {
+        return requestLogService != null ? requestLogService.getMetrics() : null;
+    }
+
     public RestTemplateTrackingInterceptor getRestTemplateTrackingInterceptor() {
         return restTemplateTrackingInterceptor;
     }
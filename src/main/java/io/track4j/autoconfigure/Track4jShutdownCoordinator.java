@@ -0,0 +1,60 @@
+package io.track4j.autoconfigure;
+
+import io.track4j.repository.datasourcemanager.Track4jDataSourceManager;
+import io.track4j.service.RequestLogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public final class Track4jShutdownCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(Track4jShutdownCoordinator.class);
+
+    private final RequestLogService requestLogService;
+    private final Track4jDataSourceManager dataSourceManager;
+    private final long timeoutMs;
+    private final AtomicBoolean stopped = new AtomicBoolean(false);
+    private final Thread shutdownHook;
+
+    public Track4jShutdownCoordinator(RequestLogService requestLogService,
+                                      Track4jDataSourceManager dataSourceManager,
+                                      long timeoutMs) {
+        this.requestLogService = requestLogService;
+        this.dataSourceManager = dataSourceManager;
+        this.timeoutMs = timeoutMs;
+        this.shutdownHook = new Thread(this::shutdown, "track4j-shutdown");
+    }
+
+    public void registerShutdownHook() {
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    public void shutdown() {
+        if (!stopped.compareAndSet(false, true)) {
+            return;
+        }
+        if (Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // the JVM is already shutting down and the hook is running or queued
+            }
+        }
+
+        long start = System.currentTimeMillis();
+        boolean drained = false;
+        try {
+            drained = requestLogService == null || requestLogService.shutdown(timeoutMs);
+        } finally {
+            if (dataSourceManager != null) {
+                if (drained) {
+                    dataSourceManager.close();
+                } else {
+                    logger.warn("Track4j: Writers are still running, leaving the connection pool to be closed with the JVM");
+                }
+            }
+        }
+        logger.info("Track4j: Shutdown completed in {} ms", System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,175 @@
+package io.track4j.helper;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+public final class CaptureBuffer {
+
+    private static final int INITIAL_SIZE = 8192;
+    private static final int MAX_POOLED_ARRAY = 256 * 1024;
+    private static final int MAX_POOLED_ARRAYS = 256;
+    private static final byte[] EMPTY = new byte[0];
+    private static final String TRUNCATION_MARKER = "...[truncated, %d of %d bytes captured]";
+    private static final String INFLATED_TRUNCATION_MARKER = "...[truncated, %d decompressed bytes captured]";
+    private static final String OMITTED_MARKER = "[body not captured: %s, %d bytes]";
+
+    private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger pooled = new AtomicInteger();
+
+    private final int limit;
+    private final String contentType;
+    private final boolean gzipEncoded;
+    private byte[] buffer = EMPTY;
+    private int length;
+    private long totalBytes;
+    private long declaredLength = -1;
+
+    public CaptureBuffer(int limit) {
+        this(limit, null, false);
+    }
+
+    public CaptureBuffer(int limit, String contentType, boolean gzipEncoded) {
+        this.limit = Math.max(0, limit);
+        this.contentType = contentType;
+        this.gzipEncoded = gzipEncoded;
+    }
+
+    public void write(int b) {
+        totalBytes++;
+        if (length < limit) {
+            ensureCapacity(length + 1);
+            buffer[length++] = (byte) b;
+        }
+    }
+
+    public void write(byte[] bytes, int offset, int count) {
+        totalBytes += count;
+        int captured = Math.min(count, limit - length);
+        if (captured > 0) {
+            ensureCapacity(length + captured);
+            System.arraycopy(bytes, offset, buffer, length, captured);
+            length += captured;
+        }
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public long getTotalBytes() {
+        return Math.max(totalBytes, declaredLength);
+    }
+
+    public void setDeclaredLength(long declaredLength) {
+        this.declaredLength = declaredLength;
+    }
+
+    public boolean isOmitted() {
+        return limit == 0;
+    }
+
+    public boolean isTruncated() {
+        return getTotalBytes() > length;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public byte[] array() {
+        return buffer;
+    }
+
+    public byte[] toByteArray() {
+        return length == 0 ? EMPTY : Arrays.copyOf(buffer, length);
+    }
+
+    public String toString(Charset charset) {
+        if (isOmitted()) {
+            long size = getTotalBytes();
+            return size > 0 ? String.format(OMITTED_MARKER, contentType != null ? contentType : "unknown", size) : null;
+        }
+        if (gzipEncoded && length > 1 && buffer[0] == (byte) 0x1F && buffer[1] == (byte) 0x8B) {
+            return gunzip(charset);
+        }
+        return decode(buffer, length, getTotalBytes(), charset);
+    }
+
+    public static String decode(byte[] content, int length, long totalBytes, Charset charset) {
+        if (content == null || length <= 0) {
+            return null;
+        }
+        String body = new String(content, 0, length, charset);
+        if (totalBytes <= length) {
+            return body;
+        }
+        return body + String.format(TRUNCATION_MARKER, length, totalBytes);
+    }
+
+    public void release() {
+        byte[] released = buffer;
+        buffer = EMPTY;
+        length = 0;
+        if (released.length == 0 || released.length > MAX_POOLED_ARRAY) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= MAX_POOLED_ARRAYS) {
+            pool.offer(released);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    private String gunzip(Charset charset) {
+        byte[] inflated = new byte[Math.min(limit, Math.max(INITIAL_SIZE, length << 2))];
+        int inflatedLength = 0;
+        boolean complete = false;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(buffer, 0, length), INITIAL_SIZE)) {
+            while (inflatedLength < limit) {
+                if (inflatedLength == inflated.length) {
+                    inflated = Arrays.copyOf(inflated, Math.min(limit, inflated.length << 1));
+                }
+                int read = in.read(inflated, inflatedLength, inflated.length - inflatedLength);
+                if (read == -1) {
+                    complete = true;
+                    break;
+                }
+                inflatedLength += read;
+            }
+        } catch (IOException e) {
+            // a capped capture cuts the gzip stream short, keep what was inflated
+        }
+        if (inflatedLength == 0) {
+            return String.format(OMITTED_MARKER, "gzip " + (contentType != null ? contentType : "unknown"), getTotalBytes());
+        }
+        String body = new String(inflated, 0, inflatedLength, charset);
+        return complete && !isTruncated()
+                ? body
+                : body + String.format(INFLATED_TRUNCATION_MARKER, inflatedLength);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= buffer.length) {
+            return;
+        }
+        if (buffer.length == 0) {
+            byte[] candidate = pool.poll();
+            if (candidate != null) {
+                pooled.decrementAndGet();
+                buffer = candidate;
+                if (candidate.length >= required) {
+                    return;
+                }
+            }
+        }
+        int newSize = Math.max(buffer.length == 0 ? Math.min(INITIAL_SIZE, limit) : buffer.length << 1, required);
+        buffer = Arrays.copyOf(buffer, Math.min(newSize, limit));
+    }
+}
@@ -0,0 +1,166 @@
+package io.track4j.helper;
+
+import io.track4j.properties.Track4jProperties;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class CapturePolicy {
+
+    public static final String DEFAULT_ALLOWED_CONTENT_TYPES = "text/*,application/json,application/*+json,application/xml," +
+            "application/*+xml,application/x-www-form-urlencoded,application/javascript,application/graphql";
+    public static final String DEFAULT_DENIED_CONTENT_TYPES = "multipart/*,text/event-stream,application/octet-stream," +
+            "application/x-ndjson,application/grpc,application/x-protobuf,application/pdf,application/zip,image/*,audio/*,video/*,font/*";
+
+    private static final int MAX_CACHED_DECISIONS = 512;
+
+    private final ContentTypeMatcher allowed;
+    private final ContentTypeMatcher denied;
+    private final Map<String, Integer> maxBytesByExactType = new HashMap<>();
+    private final ContentTypeMatcher[] maxBytesPatterns;
+    private final int[] maxBytesPatternValues;
+    private final boolean decompressGzip;
+    private final Map<String, Integer> decisions = new ConcurrentHashMap<>();
+
+    public CapturePolicy(String allowedContentTypes, String deniedContentTypes,
+                         String maxBytesByType, boolean decompressGzip) {
+        this.allowed = new ContentTypeMatcher(split(allowedContentTypes));
+        this.denied = new ContentTypeMatcher(split(deniedContentTypes));
+        this.decompressGzip = decompressGzip;
+
+        List<ContentTypeMatcher> patterns = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        for (String entry : split(maxBytesByType)) {
+            int separator = entry.lastIndexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Invalid track4j.capture.max-bytes-by-type entry: " + entry);
+            }
+            String type = entry.substring(0, separator).trim();
+            int maxBytes = Integer.parseInt(entry.substring(separator + 1).trim());
+            if (type.indexOf('*') < 0) {
+                maxBytesByExactType.put(type.toLowerCase(Locale.ROOT), maxBytes);
+            } else {
+                patterns.add(new ContentTypeMatcher(new String[]{type}));
+                values.add(maxBytes);
+            }
+        }
+        this.maxBytesPatterns = patterns.toArray(new ContentTypeMatcher[0]);
+        this.maxBytesPatternValues = values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public static CapturePolicy from(Track4jProperties track4jProperties) {
+        if (track4jProperties == null) {
+            return new CapturePolicy(DEFAULT_ALLOWED_CONTENT_TYPES, DEFAULT_DENIED_CONTENT_TYPES, "", true);
+        }
+        return new CapturePolicy(
+                track4jProperties.getCaptureAllowedContentTypes(),
+                track4jProperties.getCaptureDeniedContentTypes(),
+                track4jProperties.getCaptureMaxBytesByType(),
+                track4jProperties.isCaptureDecompressGzip());
+    }
+
+    public CaptureBuffer newBuffer(String contentType, String contentEncoding, int defaultLimit) {
+        boolean gzip = contentEncoding != null && contentEncoding.trim().equalsIgnoreCase("gzip");
+        int limit = limitFor(contentType, contentEncoding, defaultLimit);
+        return new CaptureBuffer(limit, contentType, gzip && limit > 0);
+    }
+
+    public int limitFor(String contentType, String contentEncoding, int defaultLimit) {
+        if (contentEncoding != null && !contentEncoding.isBlank()) {
+            String encoding = contentEncoding.trim();
+            boolean identity = encoding.equalsIgnoreCase("identity");
+            if (!identity && !(decompressGzip && encoding.equalsIgnoreCase("gzip"))) {
+                return 0;
+            }
+        }
+        if (contentType == null || contentType.isBlank()) {
+            return defaultLimit;
+        }
+        Integer cached = decisions.get(contentType);
+        if (cached == null) {
+            cached = decide(mediaType(contentType));
+            if (decisions.size() < MAX_CACHED_DECISIONS) {
+                decisions.put(contentType, cached);
+            }
+        }
+        int limit = cached;
+        return limit < 0 ? defaultLimit : Math.min(limit, defaultLimit);
+    }
+
+    private int decide(String mediaType) {
+        if (denied.matches(mediaType) || !allowed.matches(mediaType)) {
+            return 0;
+        }
+        Integer exact = maxBytesByExactType.get(mediaType);
+        if (exact != null) {
+            return exact;
+        }
+        for (int i = 0; i < maxBytesPatterns.length; i++) {
+            if (maxBytesPatterns[i].matches(mediaType)) {
+                return maxBytesPatternValues[i];
+            }
+        }
+        return -1;
+    }
+
+    private static String mediaType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        String mediaType = parameters >= 0 ? contentType.substring(0, parameters) : contentType;
+        return mediaType.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String[] split(String value) {
+        if (value == null || value.isBlank()) {
+            return new String[0];
+        }
+        return value.trim().split("\\s*,\\s*");
+    }
+
+    private static final class ContentTypeMatcher {
+        private final Set<String> exact = new HashSet<>();
+        private final List<String> typePrefixes = new ArrayList<>();
+        private final List<String> suffixTypes = new ArrayList<>();
+        private final List<String> suffixes = new ArrayList<>();
+        private boolean matchAll;
+
+        ContentTypeMatcher(String[] patterns) {
+            for (String raw : patterns) {
+                String pattern = raw.toLowerCase(Locale.ROOT);
+                int wildcard = pattern.indexOf("/*");
+                if (pattern.equals("*/*") || pattern.equals("*")) {
+                    matchAll = true;
+                } else if (wildcard < 0) {
+                    exact.add(pattern);
+                } else if (pattern.length() == wildcard + 2) {
+                    typePrefixes.add(pattern.substring(0, wildcard + 1));
+                } else {
+                    suffixTypes.add(pattern.substring(0, wildcard + 1));
+                    suffixes.add(pattern.substring(wildcard + 2));
+                }
+            }
+        }
+
+        boolean matches(String mediaType) {
+            if (matchAll || exact.contains(mediaType)) {
+                return true;
+            }
+            for (int i = 0; i < typePrefixes.size(); i++) {
+                if (mediaType.startsWith(typePrefixes.get(i))) {
+                    return true;
+                }
+            }
+            for (int i = 0; i < suffixes.size(); i++) {
+                if (mediaType.startsWith(suffixTypes.get(i)) && mediaType.endsWith(suffixes.get(i))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
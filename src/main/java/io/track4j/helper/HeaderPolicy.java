@@ -0,0 +1,160 @@
+package io.track4j.helper;
+
+import io.track4j.properties.Track4jProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+public final class HeaderPolicy {
+
+    public static final String DEFAULT_REDACTED_HEADERS = "authorization,proxy-authorization,cookie,set-cookie," +
+            "x-api-key,x-auth-token,x-csrf-token,x-xsrf-token";
+    public static final String DEFAULT_REDACTION_VALUE = "[REDACTED]";
+
+    public static final HeaderPolicy INCLUDE_ALL = new HeaderPolicy("", "", "", DEFAULT_REDACTION_VALUE);
+
+    public enum Action {
+        INCLUDE,
+        REDACT,
+        EXCLUDE
+    }
+
+    private final String[] names;
+    private final Action[] actions;
+    private final int mask;
+    private final String[] includePrefixes;
+    private final String[] excludePrefixes;
+    private final String[] redactPrefixes;
+    private final boolean includeAll;
+    private final Action defaultAction;
+    private final String redactionValue;
+
+    public HeaderPolicy(String includedHeaders, String excludedHeaders, String redactedHeaders, String redactionValue) {
+        Set<String> include = new LinkedHashSet<>();
+        Set<String> exclude = new LinkedHashSet<>();
+        Set<String> redact = new LinkedHashSet<>();
+        List<String> includePrefixList = new ArrayList<>();
+        List<String> excludePrefixList = new ArrayList<>();
+        List<String> redactPrefixList = new ArrayList<>();
+        parse(includedHeaders, include, includePrefixList);
+        parse(excludedHeaders, exclude, excludePrefixList);
+        parse(redactedHeaders, redact, redactPrefixList);
+
+        this.includePrefixes = includePrefixList.toArray(new String[0]);
+        this.excludePrefixes = excludePrefixList.toArray(new String[0]);
+        this.redactPrefixes = redactPrefixList.toArray(new String[0]);
+        this.includeAll = include.isEmpty() && includePrefixes.length == 0;
+        this.redactionValue = redactionValue != null ? redactionValue : DEFAULT_REDACTION_VALUE;
+
+        Set<String> known = new LinkedHashSet<>(include);
+        known.addAll(exclude);
+        known.addAll(redact);
+        int capacity = Integer.highestOneBit(Math.max(4, known.size() * 4) - 1) << 1;
+        this.names = new String[capacity];
+        this.actions = new Action[capacity];
+        this.mask = capacity - 1;
+        for (String name : known) {
+            int slot = hash(name) & mask;
+            while (names[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            actions[slot] = resolve(name, include.contains(name), exclude.contains(name), redact.contains(name));
+        }
+        this.defaultAction = includePrefixes.length == 0 && excludePrefixes.length == 0 && redactPrefixes.length == 0
+                ? (includeAll ? Action.INCLUDE : Action.EXCLUDE)
+                : null;
+    }
+
+    public static HeaderPolicy from(Track4jProperties track4jProperties) {
+        if (track4jProperties == null) {
+            return new HeaderPolicy("", "", DEFAULT_REDACTED_HEADERS, DEFAULT_REDACTION_VALUE);
+        }
+        return new HeaderPolicy(
+                track4jProperties.getHeadersInclude(),
+                track4jProperties.getHeadersExclude(),
+                track4jProperties.getHeadersRedact(),
+                track4jProperties.getHeadersRedactionValue());
+    }
+
+    public Action actionFor(String name) {
+        if (name == null) {
+            return Action.EXCLUDE;
+        }
+        int length = name.length();
+        int slot = hash(name) & mask;
+        String candidate;
+        while ((candidate = names[slot]) != null) {
+            if (candidate.length() == length && candidate.regionMatches(true, 0, name, 0, length)) {
+                return actions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (defaultAction != null) {
+            return defaultAction;
+        }
+        return resolve(name, false, false, false);
+    }
+
+    public boolean isExcluded(String name) {
+        return actionFor(name) == Action.EXCLUDE;
+    }
+
+    public String getRedactionValue() {
+        return redactionValue;
+    }
+
+    private Action resolve(String name, boolean included, boolean excluded, boolean redacted) {
+        if (excluded || startsWithAny(name, excludePrefixes)) {
+            return Action.EXCLUDE;
+        }
+        if (!includeAll && !included && !startsWithAny(name, includePrefixes)) {
+            return Action.EXCLUDE;
+        }
+        if (redacted || startsWithAny(name, redactPrefixes)) {
+            return Action.REDACT;
+        }
+        return Action.INCLUDE;
+    }
+
+    private static boolean startsWithAny(String name, String[] prefixes) {
+        for (String prefix : prefixes) {
+            if (name.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int hash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            h = 31 * h + c;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static void parse(String value, Set<String> names, List<String> prefixes) {
+        if (value == null || value.isBlank()) {
+            return;
+        }
+        for (String raw : value.trim().split("\\s*,\\s*")) {
+            if (raw.isEmpty()) {
+                continue;
+            }
+            String name = raw.toLowerCase(Locale.ROOT);
+            if (name.endsWith("*")) {
+                prefixes.add(name.substring(0, name.length() - 1));
+            } else {
+                names.add(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.track4j.helper;
+
+import java.util.UUID;
+
+public interface IdGenerator {
+
+    UUID nextId();
+
+    static IdGenerator fromName(String name) {
+        if (name == null || name.isBlank() || name.equalsIgnoreCase("uuidv7")) {
+            return new UuidV7Generator();
+        }
+        if (name.equalsIgnoreCase("random")) {
+            return new RandomUuidGenerator();
+        }
+        try {
+            Class<?> clazz = Class.forName(name);
+            return (IdGenerator) clazz.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to instantiate id generator: " + name, e);
+        }
+    }
+
+    static byte[] toBytes(UUID id) {
+        byte[] bytes = new byte[16];
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (msb >>> (56 - (i << 3)));
+            bytes[i + 8] = (byte) (lsb >>> (56 - (i << 3)));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,212 @@
+package io.track4j.helper;
+
+import io.track4j.objects.HeaderSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+public final class JsonHeaderWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private JsonHeaderWriter() {
+    }
+
+    public static void write(ByteArrayBuilder out, HttpServletRequest request) {
+        write(out, request, HeaderPolicy.INCLUDE_ALL);
+    }
+
+    public static void write(ByteArrayBuilder out, HttpServletRequest request, HeaderPolicy policy) {
+        out.writeByte('{');
+        boolean first = true;
+        Enumeration<String> names = request.getHeaderNames();
+        while (names.hasMoreElements()) {
+            String name = names.nextElement();
+            HeaderPolicy.Action action = policy.actionFor(name);
+            if (action == HeaderPolicy.Action.EXCLUDE) {
+                continue;
+            }
+            if (action == HeaderPolicy.Action.REDACT) {
+                first = writeRedacted(out, name, first, policy);
+                continue;
+            }
+            Enumeration<String> values = request.getHeaders(name);
+            if (!values.hasMoreElements()) {
+                continue;
+            }
+            first = writeName(out, name, first);
+            String value = values.nextElement();
+            if (!values.hasMoreElements()) {
+                writeString(out, value);
+                continue;
+            }
+            out.writeByte('[');
+            writeString(out, value);
+            while (values.hasMoreElements()) {
+                out.writeByte(',');
+                writeString(out, values.nextElement());
+            }
+            out.writeByte(']');
+        }
+        out.writeByte('}');
+    }
+
+    public static void write(ByteArrayBuilder out, HttpServletResponse response) {
+        write(out, response, HeaderPolicy.INCLUDE_ALL);
+    }
+
+    public static void write(ByteArrayBuilder out, HttpServletResponse response, HeaderPolicy policy) {
+        out.writeByte('{');
+        boolean first = true;
+        for (String name : response.getHeaderNames()) {
+            HeaderPolicy.Action action = policy.actionFor(name);
+            if (action == HeaderPolicy.Action.EXCLUDE) {
+                continue;
+            }
+            if (action == HeaderPolicy.Action.REDACT) {
+                first = writeRedacted(out, name, first, policy);
+                continue;
+            }
+            first = writeValues(out, name, response.getHeaders(name), first);
+        }
+        out.writeByte('}');
+    }
+
+    public static void write(ByteArrayBuilder out, Map<String, List<String>> headers, HeaderPolicy policy) {
+        out.writeByte('{');
+        boolean first = true;
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            String name = header.getKey();
+            HeaderPolicy.Action action = policy.actionFor(name);
+            if (action == HeaderPolicy.Action.EXCLUDE) {
+                continue;
+            }
+            if (action == HeaderPolicy.Action.REDACT) {
+                first = writeRedacted(out, name, first, policy);
+                continue;
+            }
+            List<String> values = header.getValue();
+            if (values != null) {
+                first = writeValues(out, name, values, first);
+            }
+        }
+        out.writeByte('}');
+    }
+
+    public static void write(ByteArrayBuilder out, HeaderSnapshot headers) {
+        out.writeByte('{');
+        int size = headers.size();
+        int i = 0;
+        while (i < size) {
+            String name = headers.getName(i);
+            int end = i + 1;
+            while (end < size && name.equalsIgnoreCase(headers.getName(end))) {
+                end++;
+            }
+            writeName(out, name, i == 0);
+            if (end - i == 1) {
+                writeString(out, headers.getValue(i));
+            } else {
+                out.writeByte('[');
+                for (int j = i; j < end; j++) {
+                    if (j > i) {
+                        out.writeByte(',');
+                    }
+                    writeString(out, headers.getValue(j));
+                }
+                out.writeByte(']');
+            }
+            i = end;
+        }
+        out.writeByte('}');
+    }
+
+    public static void writeString(ByteArrayBuilder out, CharSequence value) {
+        if (value == null) {
+            out.writeByte('n').writeByte('u').writeByte('l').writeByte('l');
+            return;
+        }
+        out.writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80) {
+                if (c == '"' || c == '\\') {
+                    out.writeByte('\\');
+                }
+                out.writeByte(c);
+            } else if (c < 0x20) {
+                writeControl(out, c);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                out.writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                out.writeCodePoint(Character.isSurrogate(c) ? '?' : c);
+            }
+        }
+        out.writeByte('"');
+    }
+
+    private static boolean writeValues(ByteArrayBuilder out, String name, Collection<String> values, boolean first) {
+        if (values.isEmpty()) {
+            return first;
+        }
+        writeName(out, name, first);
+        if (values.size() == 1) {
+            writeString(out, values.iterator().next());
+            return false;
+        }
+        out.writeByte('[');
+        Iterator<String> it = values.iterator();
+        writeString(out, it.next());
+        while (it.hasNext()) {
+            out.writeByte(',');
+            writeString(out, it.next());
+        }
+        out.writeByte(']');
+        return false;
+    }
+
+    private static boolean writeRedacted(ByteArrayBuilder out, String name, boolean first, HeaderPolicy policy) {
+        writeName(out, name, first);
+        writeString(out, policy.getRedactionValue());
+        return false;
+    }
+
+    private static boolean writeName(ByteArrayBuilder out, String name, boolean first) {
+        if (!first) {
+            out.writeByte(',');
+        }
+        writeString(out, name);
+        out.writeByte(':');
+        return false;
+    }
+
+    private static void writeControl(ByteArrayBuilder out, char c) {
+        out.writeByte('\\');
+        switch (c) {
+            case '\n':
+                out.writeByte('n');
+                break;
+            case '\r':
+                out.writeByte('r');
+                break;
+            case '\t':
+                out.writeByte('t');
+                break;
+            case '\b':
+                out.writeByte('b');
+                break;
+            case '\f':
+                out.writeByte('f');
+                break;
+            default:
+                out.writeByte('u').writeByte('0').writeByte('0')
+                        .writeByte(HEX[c >> 4]).writeByte(HEX[c & 0xF]);
+        }
+    }
+}
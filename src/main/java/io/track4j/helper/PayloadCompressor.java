@@ -0,0 +1,269 @@
+package io.track4j.helper;
+
+import io.track4j.properties.CompressionAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+public final class PayloadCompressor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PayloadCompressor.class);
+
+    public static final int MAGIC = 0xC4;
+
+    private static final int CHUNK_SIZE = 4096;
+    private static final int ZSTD_LEVEL = 3;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    private static final MethodHandle ZSTD_COMPRESS;
+    private static final MethodHandle ZSTD_DECOMPRESS;
+    private static final MethodHandle LZ4_COMPRESS;
+    private static final MethodHandle LZ4_DECOMPRESS;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodHandle zstdCompress = null;
+        MethodHandle zstdDecompress = null;
+        try {
+            Class<?> zstd = Class.forName("com.github.luben.zstd.Zstd");
+            zstdCompress = lookup.findStatic(zstd, "compress",
+                    MethodType.methodType(byte[].class, byte[].class, int.class));
+            zstdDecompress = lookup.findStatic(zstd, "decompress",
+                    MethodType.methodType(byte[].class, byte[].class, int.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            zstdCompress = null;
+            zstdDecompress = null;
+        }
+        ZSTD_COMPRESS = zstdCompress;
+        ZSTD_DECOMPRESS = zstdDecompress;
+
+        MethodHandle lz4Compress = null;
+        MethodHandle lz4Decompress = null;
+        try {
+            Class<?> factoryClass = Class.forName("net.jpountz.lz4.LZ4Factory");
+            Object factory = factoryClass.getMethod("fastestInstance").invoke(null);
+            Object compressor = factoryClass.getMethod("fastCompressor").invoke(factory);
+            Object decompressor = factoryClass.getMethod("fastDecompressor").invoke(factory);
+            lz4Compress = lookup.findVirtual(Class.forName("net.jpountz.lz4.LZ4Compressor"), "compress",
+                    MethodType.methodType(byte[].class, byte[].class, int.class, int.class)).bindTo(compressor);
+            lz4Decompress = lookup.findVirtual(Class.forName("net.jpountz.lz4.LZ4FastDecompressor"), "decompress",
+                    MethodType.methodType(byte[].class, byte[].class, int.class, int.class)).bindTo(decompressor);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            lz4Compress = null;
+            lz4Decompress = null;
+        }
+        LZ4_COMPRESS = lz4Compress;
+        LZ4_DECOMPRESS = lz4Decompress;
+    }
+
+    private static final ThreadLocal<ByteArrayBuilder> utf8Buffer = ThreadLocal.withInitial(ByteArrayBuilder::new);
+    private static final ThreadLocal<ByteArrayBuilder> outputBuffer = ThreadLocal.withInitial(ByteArrayBuilder::new);
+    private static final ThreadLocal<Deflater> deflater = ThreadLocal.withInitial(() -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<CRC32> crc = ThreadLocal.withInitial(CRC32::new);
+
+    private final CompressionAlgorithm algorithm;
+    private final int threshold;
+
+    public PayloadCompressor(CompressionAlgorithm algorithm, int threshold) {
+        this.algorithm = resolve(algorithm);
+        this.threshold = threshold;
+    }
+
+    public CompressionAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    public byte[] encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        ByteArrayBuilder utf8 = utf8Buffer.get().reset();
+        utf8.writeUtf8(text);
+        return encode(utf8.array(), 0, utf8.length());
+    }
+
+    public byte[] encode(byte[] utf8) {
+        return utf8 == null ? null : encode(utf8, 0, utf8.length);
+    }
+
+    public byte[] encode(byte[] source, int offset, int length) {
+        ByteArrayBuilder out = outputBuffer.get().reset();
+        if (algorithm != CompressionAlgorithm.NONE && length >= threshold) {
+            writeHeader(out, algorithm, length);
+            int headerLength = out.length();
+            try {
+                compress(out, source, offset, length);
+                if (out.length() - headerLength < length) {
+                    return out.toByteArray();
+                }
+            } catch (Throwable e) {
+                logger.debug("Track4j: Failed to compress payload, storing it uncompressed", e);
+            }
+            out.reset();
+        }
+        writeHeader(out, CompressionAlgorithm.NONE, length);
+        out.writeBytes(source, offset, length);
+        return out.toByteArray();
+    }
+
+    public static boolean isEncoded(byte[] stored) {
+        return stored != null && stored.length >= 3 && (stored[0] & 0xFF) == MAGIC;
+    }
+
+    public static String decodeToString(byte[] stored) {
+        byte[] utf8 = decode(stored);
+        return utf8 == null ? null : new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    public static byte[] decode(byte[] stored) {
+        if (stored == null) {
+            return null;
+        }
+        if (!isEncoded(stored)) {
+            throw new IllegalArgumentException("Track4j: Payload does not carry a compression header");
+        }
+        CompressionAlgorithm algorithm = CompressionAlgorithm.fromId(stored[1]);
+        int position = 2;
+        int originalLength = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = stored[position++] & 0xFF;
+            originalLength |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        try {
+            switch (algorithm) {
+                case NONE:
+                    return Arrays.copyOfRange(stored, position, stored.length);
+                case DEFLATE:
+                    return inflate(stored, position, originalLength);
+                case GZIP:
+                    try (GZIPInputStream in = new GZIPInputStream(
+                            new ByteArrayInputStream(stored, position, stored.length - position))) {
+                        return in.readNBytes(originalLength);
+                    }
+                case ZSTD:
+                    requireAvailable(ZSTD_DECOMPRESS, algorithm);
+                    return (byte[]) ZSTD_DECOMPRESS.invoke(Arrays.copyOfRange(stored, position, stored.length), originalLength);
+                case LZ4:
+                    requireAvailable(LZ4_DECOMPRESS, algorithm);
+                    return (byte[]) LZ4_DECOMPRESS.invoke(stored, position, originalLength);
+                default:
+                    throw new IllegalArgumentException("Unsupported compression algorithm: " + algorithm);
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Track4j: Failed to decompress payload", e);
+        }
+    }
+
+    private static void writeHeader(ByteArrayBuilder out, CompressionAlgorithm algorithm, int originalLength) {
+        out.writeByte(MAGIC);
+        out.writeByte(algorithm.getId());
+        out.writeVarLong(originalLength);
+    }
+
+    private void compress(ByteArrayBuilder out, byte[] source, int offset, int length) throws Throwable {
+        switch (algorithm) {
+            case DEFLATE:
+                deflate(out, source, offset, length);
+                break;
+            case GZIP:
+                out.writeBytes(GZIP_HEADER, 0, GZIP_HEADER.length);
+                deflate(out, source, offset, length);
+                CRC32 checksum = crc.get();
+                checksum.reset();
+                checksum.update(source, offset, length);
+                writeIntLittleEndian(out, (int) checksum.getValue());
+                writeIntLittleEndian(out, length);
+                break;
+            case ZSTD:
+                byte[] input = offset == 0 && length == source.length ? source : Arrays.copyOfRange(source, offset, offset + length);
+                byte[] zstd = (byte[]) ZSTD_COMPRESS.invoke(input, ZSTD_LEVEL);
+                out.writeBytes(zstd, 0, zstd.length);
+                break;
+            case LZ4:
+                byte[] lz4 = (byte[]) LZ4_COMPRESS.invoke(source, offset, length);
+                out.writeBytes(lz4, 0, lz4.length);
+                break;
+            default:
+                throw new IllegalStateException("Unsupported compression algorithm: " + algorithm);
+        }
+    }
+
+    private static void deflate(ByteArrayBuilder out, byte[] source, int offset, int length) {
+        Deflater def = deflater.get();
+        def.reset();
+        def.setInput(source, offset, length);
+        def.finish();
+        while (!def.finished()) {
+            int position = out.length();
+            out.setLength(position + CHUNK_SIZE);
+            int written = def.deflate(out.array(), position, CHUNK_SIZE);
+            out.setLength(position + written);
+        }
+    }
+
+    private static byte[] inflate(byte[] stored, int offset, int originalLength) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(stored, offset, stored.length - offset);
+            byte[] result = new byte[originalLength];
+            int position = 0;
+            while (position < originalLength && !inflater.finished()) {
+                int read = inflater.inflate(result, position, originalLength - position);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                position += read;
+            }
+            if (position != originalLength) {
+                throw new DataFormatException("Truncated deflate payload");
+            }
+            return result;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void writeIntLittleEndian(ByteArrayBuilder out, int value) {
+        out.writeByte(value);
+        out.writeByte(value >>> 8);
+        out.writeByte(value >>> 16);
+        out.writeByte(value >>> 24);
+    }
+
+    private static void requireAvailable(MethodHandle handle, CompressionAlgorithm algorithm) throws IOException {
+        if (handle == null) {
+            throw new IOException("Track4j: " + algorithm + " library is not on the classpath");
+        }
+    }
+
+    private static CompressionAlgorithm resolve(CompressionAlgorithm requested) {
+        if (requested == CompressionAlgorithm.ZSTD && ZSTD_COMPRESS == null
+                || requested == CompressionAlgorithm.LZ4 && LZ4_COMPRESS == null) {
+            logger.warn("Track4j: {} compression library is not on the classpath, falling back to DEFLATE", requested);
+            return CompressionAlgorithm.DEFLATE;
+        }
+        return requested;
+    }
+}
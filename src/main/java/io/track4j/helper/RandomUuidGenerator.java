@@ -0,0 +1,11 @@
+package io.track4j.helper;
+
+import java.util.UUID;
+
+public final class RandomUuidGenerator implements IdGenerator {
+
+    @Override
+    public UUID nextId() {
+        return UUID.randomUUID();
+    }
+}
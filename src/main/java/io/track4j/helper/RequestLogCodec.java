@@ -0,0 +1,194 @@
+package io.track4j.helper;
+
+import io.track4j.objects.RequestLog;
+import io.track4j.objects.RequestType;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+public final class RequestLogCodec {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final RequestType[] REQUEST_TYPES = RequestType.values();
+
+    private RequestLogCodec() {
+    }
+
+    public static void encode(RequestLog log, ByteArrayBuilder out) {
+        out.writeByte(FORMAT_VERSION);
+        writeString(out, log.getTraceId());
+        writeString(out, log.getSpanId());
+        writeString(out, log.getParentSpanId());
+        writeString(out, log.getOperationName());
+        out.writeByte(log.getRequestType() != null ? log.getRequestType().ordinal() + 1 : 0);
+        writeString(out, log.getMethod());
+        writeString(out, log.getUrl());
+        writeBytes(out, log.getRequestHeadersUtf8());
+        writeString(out, log.getRequestBody());
+        writeBytes(out, log.getResponseHeadersUtf8());
+        writeString(out, log.getResponseBody());
+        out.writeVarLong(log.getStatusCode() & 0xFFFFFFFFL);
+        writeTime(out, log.getStartTime());
+        writeTime(out, log.getEndTime());
+        out.writeVarLong(log.getDurationMs());
+        out.writeByte(log.getSuccess() ? 1 : 0);
+        writeString(out, log.getErrorMessage());
+        writeString(out, log.getUserId());
+        writeString(out, log.getClientIp());
+        writeString(out, log.getTags());
+    }
+
+    public static RequestLog decode(byte[] data, int offset, int length) {
+        Reader in = new Reader(data, offset, offset + length);
+        int version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported request log format version: " + version);
+        }
+
+        RequestLog log = new RequestLog();
+        log.setTraceId(in.readString());
+        log.setSpanId(in.readString());
+        log.setParentSpanId(in.readString());
+        log.setOperationName(in.readString());
+        int requestType = in.readByte();
+        log.setRequestType(requestType > 0 ? REQUEST_TYPES[requestType - 1] : null);
+        log.setMethod(in.readString());
+        log.setUrl(in.readString());
+        log.setRequestHeadersUtf8(in.readBytes());
+        log.setRequestBody(in.readString());
+        log.setResponseHeadersUtf8(in.readBytes());
+        log.setResponseBody(in.readString());
+        log.setStatusCode((int) in.readVarLong());
+        log.setStartTime(in.readTime());
+        log.setEndTime(in.readTime());
+        log.setDurationMs(in.readVarLong());
+        log.setSuccess(in.readByte() == 1);
+        log.setErrorMessage(in.readString());
+        log.setUserId(in.readString());
+        log.setClientIp(in.readString());
+        log.setTags(in.readString());
+        return log;
+    }
+
+    public static boolean matchesTraceId(byte[] data, int offset, int length, byte[] traceIdUtf8) {
+        Reader in = new Reader(data, offset, offset + length);
+        if (in.readByte() != FORMAT_VERSION) {
+            return false;
+        }
+        long encoded = in.readVarLong();
+        if (encoded == 0 || traceIdUtf8 == null) {
+            return encoded == 0 && traceIdUtf8 == null;
+        }
+        int traceIdLength = (int) (encoded - 1);
+        if (traceIdLength != traceIdUtf8.length || traceIdLength > in.limit - in.position) {
+            return false;
+        }
+        return Arrays.equals(data, in.position, in.position + traceIdLength, traceIdUtf8, 0, traceIdLength);
+    }
+
+    private static void writeString(ByteArrayBuilder out, String value) {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(ByteArrayBuilder.utf8Length(value) + 1L);
+        out.writeUtf8(value);
+    }
+
+    private static void writeBytes(ByteArrayBuilder out, byte[] value) {
+        if (value == null) {
+            out.writeVarLong(0);
+            return;
+        }
+        out.writeVarLong(value.length + 1L);
+        out.writeBytes(value, 0, value.length);
+    }
+
+    private static void writeTime(ByteArrayBuilder out, LocalDateTime value) {
+        if (value == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeVarLong(value.getNano());
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private final int limit;
+        private int position;
+
+        Reader(byte[] data, int position, int limit) {
+            this.data = data;
+            this.position = position;
+            this.limit = limit;
+        }
+
+        int readByte() {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Truncated request log record");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        String readString() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            int length = (int) (encoded - 1);
+            if (length > limit - position) {
+                throw new IllegalArgumentException("Truncated request log record");
+            }
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        byte[] readBytes() {
+            long encoded = readVarLong();
+            if (encoded == 0) {
+                return null;
+            }
+            int length = (int) (encoded - 1);
+            if (length > limit - position) {
+                throw new IllegalArgumentException("Truncated request log record");
+            }
+            byte[] value = Arrays.copyOfRange(data, position, position + length);
+            position += length;
+            return value;
+        }
+
+        LocalDateTime readTime() {
+            if (readByte() == 0) {
+                return null;
+            }
+            long seconds = readLong();
+            int nanos = (int) readVarLong();
+            return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+        }
+    }
+}
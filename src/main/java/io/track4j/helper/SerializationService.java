@@ -3,32 +3,37 @@ package io.track4j.helper;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.track4j.objects.CapturedExchange;
+import io.track4j.objects.HeaderSnapshot;
 import io.track4j.objects.LightweightRequestWrapper;
 import io.track4j.objects.LightweightResponseWrapper;
+import io.track4j.objects.RequestLog;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.util.StringUtils;
 
 import java.nio.charset.StandardCharsets;
-import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 
 public final class SerializationService {
 
     private static final ObjectMapper track4jObjectMapper = track4jObjectMapper();
     private final HttpHeaders ipHttpHeaders;
+    private final HeaderPolicy headerPolicy;
     private static final String STRING_EMPTY_ARRAY = "[]";
     private static final String STRING_ERROR_ARRAY = "[Error: %s]";
     private static final String STRING_NULL = "null";
     private static final String STRING_ERROR_JSON = "{error: %s}";
     private static final String UNKNOWN = "unknown";
     private static final String X_USER_ID_HEADER_NAME = "X-User-ID";
-    private static final String START_BRACKET = "{";
-    private static final String END_BRACKET = "}";
-    private static final String QUOTE = "\"";
-    private static final String COLON = ":";
-    private static final String COMMA = ",";
-    private static final ThreadLocal<StringBuilder> stringBuilder = ThreadLocal.withInitial(StringBuilder::new);
+    private static final ThreadLocal<ByteArrayBuilder> jsonBuffer = ThreadLocal.withInitial(ByteArrayBuilder::new);
 
     public SerializationService() {
+        this(HeaderPolicy.from(null));
+    }
+
+    public SerializationService(HeaderPolicy headerPolicy) {
+        this.headerPolicy = headerPolicy;
         this.ipHttpHeaders = new HttpHeaders();
         ipHttpHeaders.addHeader(new HttpHeader("X-Forwarded-For"));
         ipHttpHeaders.addHeader(new HttpHeader("X-Real-IP"));
@@ -63,84 +68,96 @@ public final class SerializationService {
     }
 
     public String getHeadersAsJson(LightweightRequestWrapper request) {
-        StringBuilder json = stringBuilder.get();
-        json.setLength(0);
-        json.append(START_BRACKET);
-        Iterator<String> headerNames = request.getHeaderNames().asIterator();
-
-        while (headerNames.hasNext()) {
-            String name = headerNames.next();
-            json.append(QUOTE)
-                    .append(name)
-                    .append(QUOTE)
-                    .append(COLON)
-                    .append(QUOTE)
-                    .append(request.getHeader(name))
-                    .append(QUOTE);
-            if (headerNames.hasNext()) {
-                json.append(COMMA);
-            }
-        }
-
-        json.append(END_BRACKET);
-        return json.toString();
+        return new String(getHeadersAsJsonBytes(request), StandardCharsets.UTF_8);
     }
 
     public String getHeadersAsJson(LightweightResponseWrapper response) {
-        StringBuilder json = stringBuilder.get();
-        json.setLength(0);
-        json.append(START_BRACKET);
-        Iterator<String> it = response.getHeaderNames().iterator();
-
-        while (it.hasNext()) {
-            String name = it.next();
-            json.append(QUOTE)
-                    .append(name)
-                    .append(QUOTE)
-                    .append(COLON)
-                    .append(QUOTE)
-                    .append(response.getHeader(name))
-                    .append(QUOTE);
-            if (it.hasNext()) {
-                json.append(COMMA);
-            }
-        }
+        return new String(getHeadersAsJsonBytes(response), StandardCharsets.UTF_8);
+    }
+
+    public String getHeadersAsJson(HeaderSnapshot headers) {
+        return new String(getHeadersAsJsonBytes(headers), StandardCharsets.UTF_8);
+    }
+
+    public String getHeadersAsJson(Map<String, List<String>> headers) {
+        return new String(getHeadersAsJsonBytes(headers), StandardCharsets.UTF_8);
+    }
+
+    public byte[] getHeadersAsJsonBytes(LightweightRequestWrapper request) {
+        ByteArrayBuilder json = jsonBuffer.get().reset();
+        JsonHeaderWriter.write(json, request, headerPolicy);
+        return json.toByteArray();
+    }
 
-        json.append(END_BRACKET);
-        return json.toString();
+    public byte[] getHeadersAsJsonBytes(LightweightResponseWrapper response) {
+        ByteArrayBuilder json = jsonBuffer.get().reset();
+        JsonHeaderWriter.write(json, response, headerPolicy);
+        return json.toByteArray();
+    }
+
+    public byte[] getHeadersAsJsonBytes(HeaderSnapshot headers) {
+        ByteArrayBuilder json = jsonBuffer.get().reset();
+        JsonHeaderWriter.write(json, headers);
+        return json.toByteArray();
+    }
+
+    public byte[] getHeadersAsJsonBytes(Map<String, List<String>> headers) {
+        ByteArrayBuilder json = jsonBuffer.get().reset();
+        JsonHeaderWriter.write(json, headers, headerPolicy);
+        return json.toByteArray();
+    }
+
+    public HeaderPolicy getHeaderPolicy() {
+        return headerPolicy;
     }
 
     public String getRequestBody(LightweightRequestWrapper request) {
-        byte[] content = request.getContentAsByteArray();
-        if (content.length > 0) {
-            return new String(content, StandardCharsets.UTF_8);
-        }
-        return null;
+        CaptureBuffer captured = request.getCaptureBuffer();
+        return captured != null ? captured.toString(StandardCharsets.UTF_8) : null;
     }
 
     public String getResponseBody(LightweightResponseWrapper response) {
-        byte[] content = response.getContentAsByteArray();
-        if (content.length > 0) {
-            return new String(content, StandardCharsets.UTF_8);
-        }
-        return null;
+        CaptureBuffer captured = response.getCaptureBuffer();
+        return captured != null ? captured.toString(StandardCharsets.UTF_8) : null;
     }
 
     public String getClientIp(HttpServletRequest request) {
         for (HttpHeader httpHeader : ipHttpHeaders) {
             String ip = request.getHeader(httpHeader.getHeaderName());
             if (StringUtils.hasText(ip) && !UNKNOWN.equalsIgnoreCase(ip)) {
-                int commaIndex = ip.indexOf(',');
-                if (commaIndex > 0) {
-                    return ip.substring(0, commaIndex).trim();
-                }
-                return ip.trim();
+                return firstForwardedIp(ip);
             }
         }
 
         return request.getRemoteAddr();
     }
 
+    public String getClientIp(HeaderSnapshot headers, String remoteAddr) {
+        for (HttpHeader httpHeader : ipHttpHeaders) {
+            String ip = headers.getFirst(httpHeader.getHeaderName());
+            if (StringUtils.hasText(ip) && !UNKNOWN.equalsIgnoreCase(ip)) {
+                return firstForwardedIp(ip);
+            }
+        }
+
+        return remoteAddr;
+    }
+
+    public HeaderSnapshot identityHeaders(HttpServletRequest request) {
+        HeaderSnapshot snapshot = new HeaderSnapshot(4);
+        for (HttpHeader httpHeader : ipHttpHeaders) {
+            String value = request.getHeader(httpHeader.getHeaderName());
+            if (value != null) {
+                snapshot.add(httpHeader.getHeaderName(), value);
+            }
+        }
+        String userId = request.getHeader(X_USER_ID_HEADER_NAME);
+        if (userId != null) {
+            snapshot.add(X_USER_ID_HEADER_NAME, userId);
+        }
+        return snapshot;
+    }
+
     public String extractUserId(HttpServletRequest request) {
         if (request.getUserPrincipal() != null) {
             return request.getUserPrincipal().getName();
@@ -154,6 +171,55 @@ public final class SerializationService {
         return null;
     }
 
+    public void materialize(RequestLog requestLog) {
+        CapturedExchange exchange = requestLog.getCapturedExchange();
+        if (exchange == null) {
+            return;
+        }
+
+        HeaderSnapshot requestHeaders = exchange.getRequestHeaders();
+        HeaderSnapshot identityHeaders = exchange.getIdentityHeaders() != null
+                ? exchange.getIdentityHeaders()
+                : requestHeaders;
+        if (exchange.getPrincipalName() != null) {
+            requestLog.setUserId(exchange.getPrincipalName());
+        } else if (identityHeaders != null) {
+            String userId = identityHeaders.getFirst(X_USER_ID_HEADER_NAME);
+            requestLog.setUserId(StringUtils.hasText(userId) ? userId : null);
+        }
+        requestLog.setClientIp(identityHeaders != null
+                ? getClientIp(identityHeaders, exchange.getRemoteAddr())
+                : exchange.getRemoteAddr());
+
+        if (exchange.isIncludeHeaders()) {
+            if (requestHeaders != null) {
+                requestLog.setRequestHeadersUtf8(getHeadersAsJsonBytes(requestHeaders));
+            }
+            if (exchange.getResponseHeaders() != null) {
+                requestLog.setResponseHeadersUtf8(getHeadersAsJsonBytes(exchange.getResponseHeaders()));
+            }
+        }
+        try {
+            requestLog.setRequestBody(decodeBody(exchange.getRequestCapture()));
+            requestLog.setResponseBody(decodeBody(exchange.getResponseCapture()));
+        } finally {
+            exchange.release();
+            requestLog.setCapturedExchange(null);
+        }
+    }
+
+    private static String decodeBody(CaptureBuffer capture) {
+        return capture != null ? capture.toString(StandardCharsets.UTF_8) : null;
+    }
+
+    private static String firstForwardedIp(String ip) {
+        int commaIndex = ip.indexOf(',');
+        if (commaIndex > 0) {
+            return ip.substring(0, commaIndex).trim();
+        }
+        return ip.trim();
+    }
+
     public static ObjectMapper track4jObjectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
@@ -0,0 +1,33 @@
+package io.track4j.helper;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public final class UuidV7Generator implements IdGenerator {
+
+    private static final int COUNTER_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+    // unix millis in the high bits and a 12-bit sequence below, so ids stay ordered within a millisecond
+    private final AtomicLong lastTimestampAndCounter = new AtomicLong();
+
+    @Override
+    public UUID nextId() {
+        long candidate = System.currentTimeMillis() << COUNTER_BITS;
+        long last;
+        long next;
+        do {
+            last = lastTimestampAndCounter.get();
+            next = candidate > last ? candidate : last + 1;
+        } while (!lastTimestampAndCounter.compareAndSet(last, next));
+
+        long timestamp = next >>> COUNTER_BITS;
+        long counter = next & ((1L << COUNTER_BITS) - 1);
+        long msb = (timestamp << 16) | VERSION | counter;
+        long lsb = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb);
+    }
+}
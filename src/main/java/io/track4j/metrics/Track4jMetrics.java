@@ -0,0 +1,101 @@
+package io.track4j.metrics;
+
+import io.track4j.service.buffer.DropCounters;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+public final class Track4jMetrics {
+
+    private final IntSupplier queueDepth;
+    private final DropCounters dropCounters;
+    private final FixedBucketHistogram enqueueLatencyNanos = new FixedBucketHistogram();
+    private final FixedBucketHistogram batchSizes = new FixedBucketHistogram();
+    private final FixedBucketHistogram saveLatencyNanos = new FixedBucketHistogram();
+    private final FixedBucketHistogram serializationNanos = new FixedBucketHistogram();
+    private final FixedBucketHistogram filterOverheadNanos = new FixedBucketHistogram();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder failedBatches = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final LongAdder spilledRows = new LongAdder();
+
+    public Track4jMetrics(IntSupplier queueDepth, DropCounters dropCounters) {
+        this.queueDepth = queueDepth;
+        this.dropCounters = dropCounters;
+    }
+
+    public void recordEnqueue(long nanos) {
+        enqueueLatencyNanos.record(nanos);
+    }
+
+    public void recordSave(int rows, long nanos) {
+        batchSizes.record(rows);
+        saveLatencyNanos.record(nanos);
+        rowsWritten.add(rows);
+    }
+
+    public void recordSaveFailure(int rows) {
+        failedBatches.increment();
+        failedRows.add(rows);
+    }
+
+    public void recordSpill(int rows) {
+        spilledRows.add(rows);
+    }
+
+    public void recordSerialization(long nanos) {
+        serializationNanos.record(nanos);
+    }
+
+    public void recordFilterOverhead(long nanos) {
+        filterOverheadNanos.record(nanos);
+    }
+
+    public int getQueueDepth() {
+        return queueDepth.getAsInt();
+    }
+
+    public DropCounters getDropCounters() {
+        return dropCounters;
+    }
+
+    public long getDroppedCount() {
+        return dropCounters.total();
+    }
+
+    public FixedBucketHistogram getEnqueueLatencyNanos() {
+        return enqueueLatencyNanos;
+    }
+
+    public FixedBucketHistogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    public FixedBucketHistogram getSaveLatencyNanos() {
+        return saveLatencyNanos;
+    }
+
+    public FixedBucketHistogram getSerializationNanos() {
+        return serializationNanos;
+    }
+
+    public FixedBucketHistogram getFilterOverheadNanos() {
+        return filterOverheadNanos;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.sum();
+    }
+
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    public long getSpilledRows() {
+        return spilledRows.sum();
+    }
+}
@@ -0,0 +1,111 @@
+package io.track4j.metrics.micrometer;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.track4j.metrics.FixedBucketHistogram;
+import io.track4j.metrics.Track4jMetrics;
+import io.track4j.repository.RequestLogRepositoryAdapter;
+import io.track4j.repository.fanout.FanOutRequestLogRepository;
+import io.track4j.repository.fanout.RepositorySink;
+import io.track4j.repository.resilience.ResilientRequestLogRepository;
+import io.track4j.service.buffer.DropReason;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public class Track4jMeterBinder implements MeterBinder {
+
+    private final Supplier<Track4jMetrics> metrics;
+    private final Supplier<RequestLogRepositoryAdapter> repository;
+
+    public Track4jMeterBinder(Supplier<Track4jMetrics> metrics, Supplier<RequestLogRepositoryAdapter> repository) {
+        this.metrics = metrics;
+        this.repository = repository;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Track4jMetrics track4jMetrics = metrics.get();
+        if (track4jMetrics == null) {
+            return;
+        }
+
+        Gauge.builder("track4j.buffer.depth", track4jMetrics, Track4jMetrics::getQueueDepth)
+                .description("Request logs waiting in the in-memory buffers")
+                .register(registry);
+
+        for (DropReason reason : DropReason.values()) {
+            FunctionCounter.builder("track4j.buffer.dropped", track4jMetrics, m -> m.getDropCounters().get(reason))
+                    .tag("reason", reason.name().toLowerCase(Locale.ROOT))
+                    .description("Request logs discarded before reaching the repository")
+                    .register(registry);
+        }
+
+        FunctionCounter.builder("track4j.rows.written", track4jMetrics, Track4jMetrics::getRowsWritten)
+                .description("Request logs persisted by the repository")
+                .register(registry);
+        FunctionCounter.builder("track4j.rows.failed", track4jMetrics, Track4jMetrics::getFailedRows)
+                .description("Request logs in batches the repository failed to persist")
+                .register(registry);
+        FunctionCounter.builder("track4j.rows.spilled", track4jMetrics, Track4jMetrics::getSpilledRows)
+                .description("Request logs written to the spill journal")
+                .register(registry);
+        FunctionCounter.builder("track4j.batches.failed", track4jMetrics, Track4jMetrics::getFailedBatches)
+                .register(registry);
+
+        bindTimer(registry, "track4j.enqueue", track4jMetrics.getEnqueueLatencyNanos());
+        bindTimer(registry, "track4j.save", track4jMetrics.getSaveLatencyNanos());
+        bindTimer(registry, "track4j.serialization", track4jMetrics.getSerializationNanos());
+        bindTimer(registry, "track4j.filter.overhead", track4jMetrics.getFilterOverheadNanos());
+
+        FixedBucketHistogram batchSizes = track4jMetrics.getBatchSizes();
+        Gauge.builder("track4j.batch.size.mean", batchSizes, FixedBucketHistogram::getMean)
+                .register(registry);
+        Gauge.builder("track4j.batch.size.max", batchSizes, FixedBucketHistogram::getMax)
+                .register(registry);
+
+        RequestLogRepositoryAdapter adapter = repository.get();
+        if (adapter instanceof ResilientRequestLogRepository) {
+            ResilientRequestLogRepository resilient = (ResilientRequestLogRepository) adapter;
+            Gauge.builder("track4j.circuit.state", resilient, r -> r.getCircuitBreakerState().ordinal())
+                    .description("0 = closed, 1 = open, 2 = half-open")
+                    .register(registry);
+            FunctionCounter.builder("track4j.write.retries", resilient, ResilientRequestLogRepository::getRetryCount)
+                    .register(registry);
+            FunctionCounter.builder("track4j.write.rejected", resilient, ResilientRequestLogRepository::getRejectedWriteCount)
+                    .register(registry);
+        }
+        if (adapter instanceof FanOutRequestLogRepository) {
+            for (RepositorySink sink : ((FanOutRequestLogRepository) adapter).getSinks()) {
+                Gauge.builder("track4j.sink.depth", sink, RepositorySink::getQueueDepth)
+                        .tag("sink", sink.getName())
+                        .register(registry);
+                FunctionCounter.builder("track4j.sink.dropped", sink, RepositorySink::getDroppedCount)
+                        .tag("sink", sink.getName())
+                        .description("Request logs discarded because the sink queue was full")
+                        .register(registry);
+                FunctionCounter.builder("track4j.sink.rows.written", sink, RepositorySink::getWrittenRows)
+                        .tag("sink", sink.getName())
+                        .register(registry);
+                FunctionCounter.builder("track4j.sink.rows.failed", sink, RepositorySink::getFailedRows)
+                        .tag("sink", sink.getName())
+                        .register(registry);
+            }
+        }
+    }
+
+    private static void bindTimer(MeterRegistry registry, String name, FixedBucketHistogram histogram) {
+        FunctionTimer.builder(name, histogram, FixedBucketHistogram::getCount, FixedBucketHistogram::getSum, TimeUnit.NANOSECONDS)
+                .register(registry);
+        Gauge.builder(name + ".p99", histogram, h -> h.getPercentile(0.99))
+                .baseUnit("nanoseconds")
+                .register(registry);
+        Gauge.builder(name + ".max", histogram, FixedBucketHistogram::getMax)
+                .baseUnit("nanoseconds")
+                .register(registry);
+    }
+}
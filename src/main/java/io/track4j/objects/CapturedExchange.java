@@ -0,0 +1,87 @@
+package io.track4j.objects;
+
+import io.track4j.helper.CaptureBuffer;
+
+public class CapturedExchange {
+    private HeaderSnapshot requestHeaders;
+    private HeaderSnapshot responseHeaders;
+    private boolean includeHeaders;
+    private CaptureBuffer requestCapture;
+    private CaptureBuffer responseCapture;
+    private String remoteAddr;
+    private String principalName;
+    private HeaderSnapshot identityHeaders;
+
+    public HeaderSnapshot getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    public void setRequestHeaders(HeaderSnapshot requestHeaders) {
+        this.requestHeaders = requestHeaders;
+    }
+
+    public HeaderSnapshot getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public void setResponseHeaders(HeaderSnapshot responseHeaders) {
+        this.responseHeaders = responseHeaders;
+    }
+
+    public boolean isIncludeHeaders() {
+        return includeHeaders;
+    }
+
+    public void setIncludeHeaders(boolean includeHeaders) {
+        this.includeHeaders = includeHeaders;
+    }
+
+    public CaptureBuffer getRequestCapture() {
+        return requestCapture;
+    }
+
+    public void setRequestCapture(CaptureBuffer requestCapture) {
+        this.requestCapture = requestCapture;
+    }
+
+    public CaptureBuffer getResponseCapture() {
+        return responseCapture;
+    }
+
+    public void setResponseCapture(CaptureBuffer responseCapture) {
+        this.responseCapture = responseCapture;
+    }
+
+    public String getRemoteAddr() {
+        return remoteAddr;
+    }
+
+    public void setRemoteAddr(String remoteAddr) {
+        this.remoteAddr = remoteAddr;
+    }
+
+    public String getPrincipalName() {
+        return principalName;
+    }
+
+    public void setPrincipalName(String principalName) {
+        this.principalName = principalName;
+    }
+
+    public HeaderSnapshot getIdentityHeaders() {
+        return identityHeaders;
+    }
+
+    public void setIdentityHeaders(HeaderSnapshot identityHeaders) {
+        this.identityHeaders = identityHeaders;
+    }
+
+    public void release() {
+        if (requestCapture != null) {
+            requestCapture.release();
+        }
+        if (responseCapture != null) {
+            responseCapture.release();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.track4j.objects;
+
+import io.track4j.helper.HeaderPolicy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.Arrays;
+import java.util.Enumeration;
+
+public final class HeaderSnapshot {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private String[] names;
+    private String[] values;
+    private int size;
+
+    public HeaderSnapshot() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public HeaderSnapshot(int initialCapacity) {
+        this.names = new String[Math.max(1, initialCapacity)];
+        this.values = new String[names.length];
+    }
+
+    public static HeaderSnapshot of(HttpServletRequest request) {
+        return of(request, HeaderPolicy.INCLUDE_ALL);
+    }
+
+    public static HeaderSnapshot of(HttpServletRequest request, HeaderPolicy policy) {
+        HeaderSnapshot snapshot = new HeaderSnapshot();
+        Enumeration<String> headerNames = request.getHeaderNames();
+        while (headerNames.hasMoreElements()) {
+            String name = headerNames.nextElement();
+            HeaderPolicy.Action action = policy.actionFor(name);
+            if (action == HeaderPolicy.Action.EXCLUDE) {
+                continue;
+            }
+            if (action == HeaderPolicy.Action.REDACT) {
+                snapshot.add(name, policy.getRedactionValue());
+                continue;
+            }
+            Enumeration<String> headerValues = request.getHeaders(name);
+            while (headerValues.hasMoreElements()) {
+                snapshot.add(name, headerValues.nextElement());
+            }
+        }
+        return snapshot;
+    }
+
+    public static HeaderSnapshot of(HttpServletResponse response) {
+        return of(response, HeaderPolicy.INCLUDE_ALL);
+    }
+
+    public static HeaderSnapshot of(HttpServletResponse response, HeaderPolicy policy) {
+        HeaderSnapshot snapshot = new HeaderSnapshot();
+        for (String name : response.getHeaderNames()) {
+            HeaderPolicy.Action action = policy.actionFor(name);
+            if (action == HeaderPolicy.Action.EXCLUDE) {
+                continue;
+            }
+            if (action == HeaderPolicy.Action.REDACT) {
+                snapshot.add(name, policy.getRedactionValue());
+                continue;
+            }
+            for (String value : response.getHeaders(name)) {
+                snapshot.add(name, value);
+            }
+        }
+        return snapshot;
+    }
+
+    public void add(String name, String value) {
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size << 1);
+            values = Arrays.copyOf(values, size << 1);
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    public String getFirst(String name) {
+        for (int i = 0; i < size; i++) {
+            if (name.equalsIgnoreCase(names[i])) {
+                return values[i];
+            }
+        }
+        return null;
+    }
+}
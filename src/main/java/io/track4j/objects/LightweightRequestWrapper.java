@@ -1,52 +1,55 @@
 package io.track4j.objects;
 
-import io.track4j.helper.IntegerHelper;
+import io.track4j.helper.CaptureBuffer;
+import io.track4j.helper.CapturePolicy;
 import jakarta.servlet.ReadListener;
 import jakarta.servlet.ServletInputStream;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletRequestWrapper;
-import org.springframework.util.FastByteArrayOutputStream;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 public class LightweightRequestWrapper extends HttpServletRequestWrapper {
-    private byte[] cachedBody;
+    public static final int DEFAULT_MAX_CAPTURED_BYTES = 64 * 1024;
+    private static final int BUFFER_SIZE = 8192;
+
+    private CaptureBuffer captureBuffer;
     private ServletInputStream inputStream;
     private BufferedReader reader;
-    private static final int BUFFER_SIZE = 8192;
-    private static final ThreadLocal<byte[]> BUFFER_POOL = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
 
-    public LightweightRequestWrapper(HttpServletRequest request) throws IOException {
-        super(request);
-        String contentLength = request.getHeader("Content-Length");
-        if (contentLength != null && !"0".equals(contentLength)) {
-            cacheRequestBody(request, IntegerHelper.parseInt(contentLength));
-        } else {
-            this.cachedBody = new byte[0];
-        }
+    public LightweightRequestWrapper(HttpServletRequest request) {
+        this(request, DEFAULT_MAX_CAPTURED_BYTES);
     }
 
-    private void cacheRequestBody(HttpServletRequest request, int contentLength) throws IOException {
-        try (InputStream requestInputStream = request.getInputStream();
-             FastByteArrayOutputStream fbaOutputStream = new FastByteArrayOutputStream(contentLength)) {
+    public LightweightRequestWrapper(HttpServletRequest request, int maxCapturedBytes) {
+        this(request, maxCapturedBytes, null);
+    }
 
-            byte[] buffer = BUFFER_POOL.get();
-            int bytesRead;
-            while ((bytesRead = requestInputStream.read(buffer)) != -1) {
-                fbaOutputStream.write(buffer, 0, bytesRead);
+    public LightweightRequestWrapper(HttpServletRequest request, int maxCapturedBytes, CapturePolicy capturePolicy) {
+        super(request);
+        if (maxCapturedBytes <= 0) {
+            this.captureBuffer = null;
+        } else if (capturePolicy != null) {
+            this.captureBuffer = capturePolicy.newBuffer(request.getContentType(), request.getHeader("Content-Encoding"), maxCapturedBytes);
+            if (captureBuffer.isOmitted()) {
+                captureBuffer.setDeclaredLength(request.getContentLengthLong());
             }
-            this.cachedBody = fbaOutputStream.toByteArray();
+        } else {
+            this.captureBuffer = new CaptureBuffer(maxCapturedBytes);
         }
     }
 
     @Override
-    public ServletInputStream getInputStream() {
+    public ServletInputStream getInputStream() throws IOException {
         if (inputStream == null) {
-            inputStream = new LightWeightServletInputStream(cachedBody);
+            ServletInputStream original = super.getInputStream();
+            inputStream = captureBuffer != null && !captureBuffer.isOmitted()
+                    ? new TeeServletInputStream(original, captureBuffer)
+                    : original;
         }
         return inputStream;
     }
@@ -54,77 +57,97 @@ public class LightweightRequestWrapper extends HttpServletRequestWrapper {
     @Override
     public BufferedReader getReader() throws IOException {
         if (reader == null) {
-            reader = new BufferedReader(new InputStreamReader(getInputStream(), getCharacterEncoding()), BUFFER_SIZE);
+            String encoding = getCharacterEncoding();
+            reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8), BUFFER_SIZE);
         }
         return reader;
     }
 
     public byte[] getContentAsByteArray() {
-        return cachedBody != null ? cachedBody : new byte[0];
+        return captureBuffer != null ? captureBuffer.toByteArray() : new byte[0];
     }
 
-    private static class LightWeightServletInputStream extends ServletInputStream {
-        private final ByteArrayInputStream inputStream;
-        private final int totalBytes;
-        private int bytesRead = 0;
+    public CaptureBuffer getCaptureBuffer() {
+        return captureBuffer;
+    }
 
-        public LightWeightServletInputStream(byte[] cachedBody) {
-            this.inputStream = new ByteArrayInputStream(cachedBody != null ? cachedBody : new byte[0]);
-            this.totalBytes = cachedBody != null ? cachedBody.length : 0;
+    public CaptureBuffer detachCaptureBuffer() {
+        CaptureBuffer detached = captureBuffer;
+        captureBuffer = null;
+        return detached;
+    }
+
+    public void release() {
+        if (captureBuffer != null) {
+            captureBuffer.release();
+        }
+    }
+
+    private static class TeeServletInputStream extends ServletInputStream {
+        private final ServletInputStream original;
+        private CaptureBuffer captureBuffer;
+
+        TeeServletInputStream(ServletInputStream original, CaptureBuffer captureBuffer) {
+            this.original = original;
+            this.captureBuffer = captureBuffer;
         }
 
         @Override
-        public int read() {
-            int result = inputStream.read();
+        public int read() throws IOException {
+            int result = original.read();
             if (result != -1) {
-                bytesRead++;
+                captureBuffer.write(result);
             }
             return result;
         }
 
         @Override
         public int read(byte[] b) throws IOException {
-            int count = inputStream.read(b);
+            return read(b, 0, b.length);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = original.read(b, off, len);
             if (count > 0) {
-                bytesRead += count;
+                captureBuffer.write(b, off, count);
             }
             return count;
         }
 
         @Override
-        public int read(byte[] b, int off, int len) {
-            int count = inputStream.read(b, off, len);
+        public int readLine(byte[] b, int off, int len) throws IOException {
+            int count = original.readLine(b, off, len);
             if (count > 0) {
-                bytesRead += count;
+                captureBuffer.write(b, off, count);
             }
             return count;
         }
 
         @Override
         public boolean isFinished() {
-            return bytesRead >= totalBytes;
+            return original.isFinished();
         }
 
         @Override
         public boolean isReady() {
-            return true;
+            return original.isReady();
         }
 
         @Override
         public void setReadListener(ReadListener listener) {
-            // Not needed for cached body
+            original.setReadListener(listener);
         }
 
         @Override
-        public int available() {
-            return inputStream.available();
+        public int available() throws IOException {
+            return original.available();
         }
 
         @Override
-        public long skip(long n) {
-            long skipped = inputStream.skip(n);
-            bytesRead += (int) skipped;
-            return skipped;
+        public void close() throws IOException {
+            original.close();
         }
     }
 }
@@ -1,10 +1,11 @@
 package io.track4j.objects;
 
+import io.track4j.helper.CaptureBuffer;
+import io.track4j.helper.CapturePolicy;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpServletResponseWrapper;
-import org.springframework.util.FastByteArrayOutputStream;
 
 import java.io.IOException;
 import java.io.OutputStreamWriter;
@@ -13,18 +14,33 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 
 public class LightweightResponseWrapper extends HttpServletResponseWrapper {
-    private LightWeightServletOutputStream outputStream;
+    public static final int DEFAULT_MAX_CAPTURED_BYTES = 64 * 1024;
+
+    private final int maxCapturedBytes;
+    private final CapturePolicy capturePolicy;
+    private CaptureBuffer captureBuffer;
+    private ServletOutputStream outputStream;
     private PrintWriter writer;
-    private final FastByteArrayOutputStream fbaOutputStream = new FastByteArrayOutputStream();
 
     public LightweightResponseWrapper(HttpServletResponse response) {
+        this(response, DEFAULT_MAX_CAPTURED_BYTES);
+    }
+
+    public LightweightResponseWrapper(HttpServletResponse response, int maxCapturedBytes) {
+        this(response, maxCapturedBytes, null);
+    }
+
+    public LightweightResponseWrapper(HttpServletResponse response, int maxCapturedBytes, CapturePolicy capturePolicy) {
         super(response);
+        this.maxCapturedBytes = maxCapturedBytes;
+        this.capturePolicy = capturePolicy;
     }
 
     @Override
     public ServletOutputStream getOutputStream() throws IOException {
         if (outputStream == null) {
-            outputStream = new LightWeightServletOutputStream(super.getOutputStream(), fbaOutputStream);
+            ServletOutputStream original = super.getOutputStream();
+            outputStream = maxCapturedBytes > 0 ? new LightWeightServletOutputStream(original, this) : original;
         }
         return outputStream;
     }
@@ -32,6 +48,10 @@ public class LightweightResponseWrapper extends HttpServletResponseWrapper {
     @Override
     public PrintWriter getWriter() throws IOException {
         if (writer == null) {
+            if (maxCapturedBytes <= 0) {
+                writer = super.getWriter();
+                return writer;
+            }
             String encoding = getCharacterEncoding();
             writer = new PrintWriter(new OutputStreamWriter(getOutputStream(),
                     encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
@@ -40,7 +60,35 @@ public class LightweightResponseWrapper extends HttpServletResponseWrapper {
     }
 
     public byte[] getContentAsByteArray() {
-        return fbaOutputStream.toByteArray();
+        return captureBuffer != null ? captureBuffer.toByteArray() : new byte[0];
+    }
+
+    public CaptureBuffer getCaptureBuffer() {
+        return captureBuffer;
+    }
+
+    public CaptureBuffer detachCaptureBuffer() {
+        CaptureBuffer detached = captureBuffer;
+        captureBuffer = null;
+        return detached;
+    }
+
+    public void release() {
+        if (captureBuffer != null) {
+            captureBuffer.release();
+        }
+    }
+
+    private CaptureBuffer resolveCaptureBuffer() {
+        if (captureBuffer == null) {
+            // decided on the first write, once the application has set the content type
+            if (capturePolicy == null) {
+                captureBuffer = new CaptureBuffer(maxCapturedBytes);
+            } else {
+                captureBuffer = capturePolicy.newBuffer(getContentType(), getHeader("Content-Encoding"), maxCapturedBytes);
+            }
+        }
+        return captureBuffer;
     }
 
     public void copyBodyToResponse() throws IOException {
@@ -54,29 +102,36 @@ public class LightweightResponseWrapper extends HttpServletResponseWrapper {
 
     private static class LightWeightServletOutputStream extends ServletOutputStream {
         private final ServletOutputStream original;
-        private final FastByteArrayOutputStream buffer;
+        private final LightweightResponseWrapper wrapper;
+        private CaptureBuffer buffer;
 
-        LightWeightServletOutputStream(ServletOutputStream original, FastByteArrayOutputStream buffer) {
+        LightWeightServletOutputStream(ServletOutputStream original, LightweightResponseWrapper wrapper) {
             this.original = original;
-            this.buffer = buffer;
+            this.wrapper = wrapper;
         }
 
         @Override
         public void write(int b) throws IOException {
             original.write(b);
-            buffer.write(b);
+            buffer().write(b);
         }
 
         @Override
         public void write(byte[] b) throws IOException {
-            original.write(b);
-            buffer.write(b);
+            write(b, 0, b.length);
         }
 
         @Override
         public void write(byte[] b, int off, int len) throws IOException {
             original.write(b, off, len);
-            buffer.write(b, off, len);
+            buffer().write(b, off, len);
+        }
+
+        private CaptureBuffer buffer() {
+            if (buffer == null) {
+                buffer = wrapper.resolveCaptureBuffer();
+            }
+            return buffer;
         }
 
         @Override
@@ -99,4 +154,4 @@ public class LightweightResponseWrapper extends HttpServletResponseWrapper {
             original.setWriteListener(listener);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package io.track4j.objects;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -23,8 +24,10 @@ public class RequestLog {
     private String method;
     private String url;
     private String requestHeaders;
+    private byte[] requestHeadersUtf8;
     private String requestBody;
     private String responseHeaders;
+    private byte[] responseHeadersUtf8;
     private String responseBody;
     private int statusCode;
     private LocalDateTime startTime;
@@ -35,6 +38,7 @@ public class RequestLog {
     private String userId;
     private String clientIp;
     private String tags;
+    private CapturedExchange capturedExchange;
 
     public String getTraceId() {
         return traceId;
@@ -97,11 +101,27 @@ public class RequestLog {
     }
 
     public String getRequestHeaders() {
+        if (this.requestHeaders == null && this.requestHeadersUtf8 != null) {
+            this.requestHeaders = new String(this.requestHeadersUtf8, StandardCharsets.UTF_8);
+        }
         return this.requestHeaders;
     }
 
     public void setRequestHeaders(String headers) {
         this.requestHeaders = headers;
+        this.requestHeadersUtf8 = null;
+    }
+
+    public byte[] getRequestHeadersUtf8() {
+        if (this.requestHeadersUtf8 == null && this.requestHeaders != null) {
+            return this.requestHeaders.getBytes(StandardCharsets.UTF_8);
+        }
+        return this.requestHeadersUtf8;
+    }
+
+    public void setRequestHeadersUtf8(byte[] headers) {
+        this.requestHeadersUtf8 = headers;
+        this.requestHeaders = null;
     }
 
     public String getRequestBody() {
@@ -113,11 +133,27 @@ public class RequestLog {
     }
 
     public String getResponseHeaders() {
+        if (this.responseHeaders == null && this.responseHeadersUtf8 != null) {
+            this.responseHeaders = new String(this.responseHeadersUtf8, StandardCharsets.UTF_8);
+        }
         return this.responseHeaders;
     }
 
     public void setResponseHeaders(String headers) {
         this.responseHeaders = headers;
+        this.responseHeadersUtf8 = null;
+    }
+
+    public byte[] getResponseHeadersUtf8() {
+        if (this.responseHeadersUtf8 == null && this.responseHeaders != null) {
+            return this.responseHeaders.getBytes(StandardCharsets.UTF_8);
+        }
+        return this.responseHeadersUtf8;
+    }
+
+    public void setResponseHeadersUtf8(byte[] headers) {
+        this.responseHeadersUtf8 = headers;
+        this.responseHeaders = null;
     }
 
     public String getResponseBody() {
@@ -199,4 +235,12 @@ public class RequestLog {
     public void setTags(String tags) {
         this.tags = tags;
     }
-}
\ No newline at end of file
+
+    public CapturedExchange getCapturedExchange() {
+        return capturedExchange;
+    }
+
+    public void setCapturedExchange(CapturedExchange capturedExchange) {
+        this.capturedExchange = capturedExchange;
+    }
+}
@@ -0,0 +1,28 @@
+package io.track4j.properties;
+
+public enum CompressionAlgorithm {
+    NONE(0),
+    DEFLATE(1),
+    GZIP(2),
+    LZ4(3),
+    ZSTD(4);
+
+    private final int id;
+
+    CompressionAlgorithm(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return this.id;
+    }
+
+    public static CompressionAlgorithm fromId(int id) {
+        for (CompressionAlgorithm algorithm : values()) {
+            if (algorithm.id == id) {
+                return algorithm;
+            }
+        }
+        throw new IllegalArgumentException("Unknown compression algorithm id: " + id);
+    }
+}
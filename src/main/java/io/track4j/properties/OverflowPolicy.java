@@ -0,0 +1,8 @@
+package io.track4j.properties;
+
+public enum OverflowPolicy {
+    DROP_NEWEST,
+    DROP_OLDEST,
+    BLOCK_WITH_DEADLINE,
+    PRIORITY_KEEP_ERRORS
+}
@@ -0,0 +1,17 @@
+package io.track4j.properties;
+
+public enum PartitionGranularity {
+    NONE(0),
+    HOURLY(3_600_000L),
+    DAILY(86_400_000L);
+
+    private final long periodMillis;
+
+    PartitionGranularity(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+
+    public long getPeriodMillis() {
+        return this.periodMillis;
+    }
+}
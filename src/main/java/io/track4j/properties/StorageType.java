@@ -2,5 +2,6 @@ package io.track4j.properties;
 
 public enum StorageType {
     SQL,
+    FILE,
     CUSTOM
 }
\ No newline at end of file
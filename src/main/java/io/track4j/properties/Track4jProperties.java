@@ -1,7 +1,11 @@
 package io.track4j.properties;
 
+import io.track4j.helper.CapturePolicy;
+import io.track4j.helper.HeaderPolicy;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.Properties;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -16,12 +20,57 @@ public class Track4jProperties {
     private int filterOrder = -100;
     private int batchSize = 100;
     private long flushInterval = 5000;
+    private int bufferCapacity = 8192;
+    private boolean adaptiveBatchingEnabled = false;
+    private int adaptiveMinBatchSize = 10;
+    private int adaptiveMaxBatchSize = 5000;
+    private long adaptiveMinFlushInterval = 100;
+    private int writerShards = 2;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+    private long overflowBlockTimeout = 5;
+    private boolean journalEnabled = false;
+    private String journalDirectory = "track4j-journal";
+    private int journalSegmentSize = 64 * 1024 * 1024;
+    private int journalMaxSegments = 16;
+    private long journalForceInterval = 1000;
+    private long shutdownTimeout = 10000;
+    private boolean resilienceEnabled = true;
+    private int retryMaxAttempts = 3;
+    private long retryInitialBackoff = 100;
+    private long retryMaxBackoff = 2000;
+    private int circuitBreakerFailureThreshold = 5;
+    private long circuitBreakerOpenDuration = 30000;
+    private boolean payloadDedupEnabled = false;
+    private int payloadDedupCacheSize = 10000;
+    private CompressionAlgorithm compressionAlgorithm = CompressionAlgorithm.NONE;
+    private int compressionThreshold = 4096;
+    private PartitionGranularity partitioning = PartitionGranularity.NONE;
+    private long retention = 0;
+    private int partitionPrecreate = 2;
+    private String fileDirectory = "track4j-data";
+    private int fileSegmentSize = 64 * 1024 * 1024;
     private boolean includeRequestBody = true;
     private boolean includeResponseBody = true;
     private boolean includeHeaders = true;
+    private int maxCapturedRequestBytes = 64 * 1024;
+    private int maxCapturedResponseBytes = 64 * 1024;
+    private String captureAllowedContentTypes = CapturePolicy.DEFAULT_ALLOWED_CONTENT_TYPES;
+    private String captureDeniedContentTypes = CapturePolicy.DEFAULT_DENIED_CONTENT_TYPES;
+    private String captureMaxBytesByType = "";
+    private boolean captureDecompressGzip = true;
+    private String headersInclude = "";
+    private String headersExclude = "";
+    private String headersRedact = HeaderPolicy.DEFAULT_REDACTED_HEADERS;
+    private String headersRedactionValue = HeaderPolicy.DEFAULT_REDACTION_VALUE;
+    private boolean deferredCapture = false;
     private String[] excludePatterns = {};
+    private String serviceName = detectServiceName();
+    private boolean schemaBootstrap = true;
+    private String idGenerator = "uuidv7";
 
     private StorageType storageType = StorageType.SQL;
+    private StorageType[] sinks = {};
+    private int sinkQueueCapacity = 8192;
     private String customRepositoryClass = "";
     private String connectionUrl = "";
     private String connectionUsername = "";
@@ -35,6 +84,9 @@ public class Track4jProperties {
     private long maxLifetime = 1800000;
     private boolean autoCommit = false;
     private String poolName = "Track4jPool";
+    private boolean sqliteHighThroughput = false;
+    private long sqliteCacheSize = -65536;
+    private long sqliteMmapSize = 268435456;
 
     public Track4jProperties() {
         Properties properties = new Properties();
@@ -47,11 +99,23 @@ public class Track4jProperties {
 
             this.enabled = Boolean.parseBoolean(properties.getProperty("track4j.enabled"));
             this.storageType = StorageType.valueOf(properties.getProperty("track4j.storage-type", storageType.name()).toUpperCase());
+            String rawSinks = properties.getProperty("track4j.sinks");
+            if (rawSinks != null && !rawSinks.isBlank()) {
+                String[] names = rawSinks.trim().split("\\s*,\\s*");
+                StorageType[] types = new StorageType[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    types[i] = StorageType.valueOf(names[i].toUpperCase());
+                }
+                this.sinks = types;
+            }
+            this.sinkQueueCapacity = Integer.parseInt(properties.getProperty("track4j.sink.queue-capacity", String.valueOf(sinkQueueCapacity)));
             this.connectionUrl = properties.getProperty("track4j.connection-url");
             this.connectionUsername = properties.getProperty("track4j.connection-username");
             this.connectionPassword = properties.getProperty("track4j.connection-password");
             this.driverClassName = properties.getProperty("track4j.driver-class-name");
             this.customRepositoryClass = properties.getProperty("track4j.custom-repository-class");
+            this.serviceName = properties.getProperty("track4j.service-name", serviceName);
+            this.schemaBootstrap = Boolean.parseBoolean(properties.getProperty("track4j.schema.bootstrap", String.valueOf(schemaBootstrap)));
 
 
             this.maximumPoolSize = Integer.parseInt(properties.getProperty("track4j.hikari.maximum-pool-size"));
@@ -61,6 +125,9 @@ public class Track4jProperties {
             this.maxLifetime = Long.parseLong(properties.getProperty("track4j.hikari.max-lifetime"));
             this.autoCommit = Boolean.parseBoolean(properties.getProperty("track4j.hikari.auto-commit"));
             this.poolName = properties.getProperty("track4j.hikari.pool-name");
+            this.sqliteHighThroughput = Boolean.parseBoolean(properties.getProperty("track4j.sqlite.high-throughput", String.valueOf(sqliteHighThroughput)));
+            this.sqliteCacheSize = Long.parseLong(properties.getProperty("track4j.sqlite.cache-size", String.valueOf(sqliteCacheSize)));
+            this.sqliteMmapSize = Long.parseLong(properties.getProperty("track4j.sqlite.mmap-size", String.valueOf(sqliteMmapSize)));
 
 
             this.incomingRequestTrackingEnabled = Boolean.parseBoolean(properties.getProperty("track4j.incoming-request-tracking-enabled"));
@@ -69,9 +136,50 @@ public class Track4jProperties {
             this.filterOrder = Integer.parseInt(properties.getProperty("track4j.filter-order"));
             this.batchSize = Integer.parseInt(properties.getProperty("track4j.batch-size"));
             this.flushInterval = Integer.parseInt(properties.getProperty("track4j.flush-interval"));
+            this.bufferCapacity = Integer.parseInt(properties.getProperty("track4j.buffer-capacity", String.valueOf(bufferCapacity)));
+            this.adaptiveBatchingEnabled = Boolean.parseBoolean(properties.getProperty("track4j.adaptive.enabled", String.valueOf(adaptiveBatchingEnabled)));
+            this.adaptiveMinBatchSize = Integer.parseInt(properties.getProperty("track4j.adaptive.min-batch-size", String.valueOf(adaptiveMinBatchSize)));
+            this.adaptiveMaxBatchSize = Integer.parseInt(properties.getProperty("track4j.adaptive.max-batch-size", String.valueOf(adaptiveMaxBatchSize)));
+            this.adaptiveMinFlushInterval = Long.parseLong(properties.getProperty("track4j.adaptive.min-flush-interval", String.valueOf(adaptiveMinFlushInterval)));
+            this.writerShards = Integer.parseInt(properties.getProperty("track4j.writer-shards", String.valueOf(writerShards)));
+            this.overflowPolicy = OverflowPolicy.valueOf(properties.getProperty("track4j.overflow-policy", overflowPolicy.name()).toUpperCase().replace('-', '_'));
+            this.overflowBlockTimeout = Long.parseLong(properties.getProperty("track4j.overflow-block-timeout", String.valueOf(overflowBlockTimeout)));
+            this.journalEnabled = Boolean.parseBoolean(properties.getProperty("track4j.journal.enabled", String.valueOf(journalEnabled)));
+            this.journalDirectory = properties.getProperty("track4j.journal.directory", journalDirectory);
+            this.journalSegmentSize = Integer.parseInt(properties.getProperty("track4j.journal.segment-size", String.valueOf(journalSegmentSize)));
+            this.journalMaxSegments = Integer.parseInt(properties.getProperty("track4j.journal.max-segments", String.valueOf(journalMaxSegments)));
+            this.journalForceInterval = Long.parseLong(properties.getProperty("track4j.journal.force-interval", String.valueOf(journalForceInterval)));
+            this.shutdownTimeout = Long.parseLong(properties.getProperty("track4j.shutdown-timeout", String.valueOf(shutdownTimeout)));
+            this.resilienceEnabled = Boolean.parseBoolean(properties.getProperty("track4j.resilience.enabled", String.valueOf(resilienceEnabled)));
+            this.retryMaxAttempts = Integer.parseInt(properties.getProperty("track4j.retry.max-attempts", String.valueOf(retryMaxAttempts)));
+            this.retryInitialBackoff = Long.parseLong(properties.getProperty("track4j.retry.initial-backoff", String.valueOf(retryInitialBackoff)));
+            this.retryMaxBackoff = Long.parseLong(properties.getProperty("track4j.retry.max-backoff", String.valueOf(retryMaxBackoff)));
+            this.circuitBreakerFailureThreshold = Integer.parseInt(properties.getProperty("track4j.circuit-breaker.failure-threshold", String.valueOf(circuitBreakerFailureThreshold)));
+            this.circuitBreakerOpenDuration = Long.parseLong(properties.getProperty("track4j.circuit-breaker.open-duration", String.valueOf(circuitBreakerOpenDuration)));
+            this.payloadDedupEnabled = Boolean.parseBoolean(properties.getProperty("track4j.payload-dedup.enabled", String.valueOf(payloadDedupEnabled)));
+            this.payloadDedupCacheSize = Integer.parseInt(properties.getProperty("track4j.payload-dedup.cache-size", String.valueOf(payloadDedupCacheSize)));
+            this.compressionAlgorithm = CompressionAlgorithm.valueOf(properties.getProperty("track4j.compression.algorithm", compressionAlgorithm.name()).toUpperCase());
+            this.compressionThreshold = Integer.parseInt(properties.getProperty("track4j.compression.threshold", String.valueOf(compressionThreshold)));
+            this.partitioning = PartitionGranularity.valueOf(properties.getProperty("track4j.partitioning", partitioning.name()).toUpperCase());
+            this.retention = parseDuration(properties.getProperty("track4j.retention"), retention);
+            this.partitionPrecreate = Integer.parseInt(properties.getProperty("track4j.partitioning.precreate", String.valueOf(partitionPrecreate)));
+            this.idGenerator = properties.getProperty("track4j.id-generator", idGenerator);
+            this.fileDirectory = properties.getProperty("track4j.file.directory", fileDirectory);
+            this.fileSegmentSize = Integer.parseInt(properties.getProperty("track4j.file.segment-size", String.valueOf(fileSegmentSize)));
             this.includeRequestBody = Boolean.parseBoolean(properties.getProperty("track4j.include-request-body"));
             this.includeResponseBody = Boolean.parseBoolean(properties.getProperty("track4j.include-response-body"));
             this.includeHeaders = Boolean.parseBoolean(properties.getProperty("track4j.include-headers"));
+            this.maxCapturedRequestBytes = Integer.parseInt(properties.getProperty("track4j.max-captured-request-bytes", String.valueOf(maxCapturedRequestBytes)));
+            this.maxCapturedResponseBytes = Integer.parseInt(properties.getProperty("track4j.max-captured-response-bytes", String.valueOf(maxCapturedResponseBytes)));
+            this.captureAllowedContentTypes = properties.getProperty("track4j.capture.allowed-content-types", captureAllowedContentTypes);
+            this.captureDeniedContentTypes = properties.getProperty("track4j.capture.denied-content-types", captureDeniedContentTypes);
+            this.captureMaxBytesByType = properties.getProperty("track4j.capture.max-bytes-by-type", captureMaxBytesByType);
+            this.captureDecompressGzip = Boolean.parseBoolean(properties.getProperty("track4j.capture.decompress-gzip", String.valueOf(captureDecompressGzip)));
+            this.headersInclude = properties.getProperty("track4j.headers.include", headersInclude);
+            this.headersExclude = properties.getProperty("track4j.headers.exclude", headersExclude);
+            this.headersRedact = properties.getProperty("track4j.headers.redact", headersRedact);
+            this.headersRedactionValue = properties.getProperty("track4j.headers.redaction-value", headersRedactionValue);
+            this.deferredCapture = Boolean.parseBoolean(properties.getProperty("track4j.deferred-capture", String.valueOf(deferredCapture)));
             String rawPatterns = properties.getProperty("track4j.exclude-patterns");
             if (rawPatterns != null && !rawPatterns.isBlank()) {
                 String[] patterns = rawPatterns.split("\\s*,\\s*");
@@ -129,6 +237,18 @@ public class Track4jProperties {
         return poolName;
     }
 
+    public boolean isSqliteHighThroughput() {
+        return sqliteHighThroughput;
+    }
+
+    public long getSqliteCacheSize() {
+        return sqliteCacheSize;
+    }
+
+    public long getSqliteMmapSize() {
+        return sqliteMmapSize;
+    }
+
     public boolean isEnabled() {
         return enabled;
     }
@@ -157,10 +277,170 @@ public class Track4jProperties {
         return flushInterval;
     }
 
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    public boolean isAdaptiveBatchingEnabled() {
+        return adaptiveBatchingEnabled;
+    }
+
+    public int getAdaptiveMinBatchSize() {
+        return adaptiveMinBatchSize;
+    }
+
+    public int getAdaptiveMaxBatchSize() {
+        return adaptiveMaxBatchSize;
+    }
+
+    public long getAdaptiveMinFlushInterval() {
+        return adaptiveMinFlushInterval;
+    }
+
+    public int getWriterShards() {
+        return writerShards;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public long getOverflowBlockTimeout() {
+        return overflowBlockTimeout;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    public String getJournalDirectory() {
+        return journalDirectory;
+    }
+
+    public int getJournalSegmentSize() {
+        return journalSegmentSize;
+    }
+
+    public int getJournalMaxSegments() {
+        return journalMaxSegments;
+    }
+
+    public long getJournalForceInterval() {
+        return journalForceInterval;
+    }
+
+    public long getShutdownTimeout() {
+        return shutdownTimeout;
+    }
+
+    public boolean isResilienceEnabled() {
+        return resilienceEnabled;
+    }
+
+    public int getRetryMaxAttempts() {
+        return retryMaxAttempts;
+    }
+
+    public long getRetryInitialBackoff() {
+        return retryInitialBackoff;
+    }
+
+    public long getRetryMaxBackoff() {
+        return retryMaxBackoff;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public long getCircuitBreakerOpenDuration() {
+        return circuitBreakerOpenDuration;
+    }
+
+    public boolean isPayloadDedupEnabled() {
+        return payloadDedupEnabled;
+    }
+
+    public int getPayloadDedupCacheSize() {
+        return payloadDedupCacheSize;
+    }
+
+    public CompressionAlgorithm getCompressionAlgorithm() {
+        return compressionAlgorithm;
+    }
+
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    public PartitionGranularity getPartitioning() {
+        return partitioning;
+    }
+
+    public long getRetention() {
+        return retention;
+    }
+
+    public int getPartitionPrecreate() {
+        return partitionPrecreate;
+    }
+
+    public String getIdGenerator() {
+        return idGenerator;
+    }
+
+    public String getFileDirectory() {
+        return fileDirectory;
+    }
+
+    public int getFileSegmentSize() {
+        return fileSegmentSize;
+    }
+
     public boolean isIncludeRequestBody() {
         return includeRequestBody;
     }
 
+    public int getMaxCapturedRequestBytes() {
+        return maxCapturedRequestBytes;
+    }
+
+    public int getMaxCapturedResponseBytes() {
+        return maxCapturedResponseBytes;
+    }
+
+    public String getCaptureAllowedContentTypes() {
+        return captureAllowedContentTypes;
+    }
+
+    public String getCaptureDeniedContentTypes() {
+        return captureDeniedContentTypes;
+    }
+
+    public String getCaptureMaxBytesByType() {
+        return captureMaxBytesByType;
+    }
+
+    public boolean isCaptureDecompressGzip() {
+        return captureDecompressGzip;
+    }
+
+    public String getHeadersInclude() {
+        return headersInclude;
+    }
+
+    public String getHeadersExclude() {
+        return headersExclude;
+    }
+
+    public String getHeadersRedact() {
+        return headersRedact;
+    }
+
+    public String getHeadersRedactionValue() {
+        return headersRedactionValue;
+    }
+
     public boolean isIncludeResponseBody() {
         return includeResponseBody;
     }
@@ -169,6 +449,18 @@ public class Track4jProperties {
         return includeHeaders;
     }
 
+    public boolean isDeferredCapture() {
+        return deferredCapture;
+    }
+
+    public StorageType[] getSinks() {
+        return sinks;
+    }
+
+    public int getSinkQueueCapacity() {
+        return sinkQueueCapacity;
+    }
+
     public String[] getExcludePatterns() {
         return excludePatterns;
     }
@@ -184,4 +476,47 @@ public class Track4jProperties {
     public String getCustomRepositoryClass() {
         return customRepositoryClass;
     }
-}
\ No newline at end of file
+
+    public String getServiceName() {
+        return serviceName;
+    }
+
+    public boolean isSchemaBootstrap() {
+        return schemaBootstrap;
+    }
+
+    private static String detectServiceName() {
+        String name = System.getProperty("spring.application.name");
+        if (name == null || name.isBlank()) {
+            name = System.getenv("SPRING_APPLICATION_NAME");
+        }
+        return name == null || name.isBlank() ? null : name;
+    }
+
+    private static long parseDuration(String value, long defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        String trimmed = value.trim().toLowerCase();
+        if (trimmed.startsWith("p")) {
+            return Duration.parse(trimmed.toUpperCase()).toMillis();
+        }
+        char unit = trimmed.charAt(trimmed.length() - 1);
+        if (Character.isDigit(unit)) {
+            return Long.parseLong(trimmed);
+        }
+        long amount = Long.parseLong(trimmed.substring(0, trimmed.length() - 1));
+        switch (unit) {
+            case 'd':
+                return Duration.ofDays(amount).toMillis();
+            case 'h':
+                return Duration.ofHours(amount).toMillis();
+            case 'm':
+                return Duration.ofMinutes(amount).toMillis();
+            case 's':
+                return Duration.ofSeconds(amount).toMillis();
+            default:
+                throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+    }
+}
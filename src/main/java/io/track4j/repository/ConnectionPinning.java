@@ -0,0 +1,6 @@
+package io.track4j.repository;
+
+public interface ConnectionPinning {
+    void pinConnection();
+    void releasePinnedConnection();
+}
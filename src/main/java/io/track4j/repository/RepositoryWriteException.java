@@ -0,0 +1,14 @@
+package io.track4j.repository;
+
+public class RepositoryWriteException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RepositoryWriteException(String message) {
+        super(message);
+    }
+
+    public RepositoryWriteException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -4,24 +4,65 @@ import io.track4j.repository.datasourcemanager.Track4jDataSourceManager;
 import io.track4j.properties.StorageType;
 import io.track4j.properties.Track4jProperties;
 import io.track4j.repository.dbrepository.SqlRequestLogRepository;
+import io.track4j.repository.fanout.FanOutRequestLogRepository;
+import io.track4j.repository.filerepository.FileRequestLogRepository;
+import io.track4j.repository.resilience.CircuitBreaker;
+import io.track4j.repository.resilience.ResilientRequestLogRepository;
+import io.track4j.repository.resilience.RetryPolicy;
 
 import javax.sql.DataSource;
+import java.util.Locale;
 
 public class RequestLogRepositoryFactory {
 
     private RequestLogRepositoryAdapter adapter;
+    private Track4jDataSourceManager dataSourceManager;
 
     public RequestLogRepositoryFactory(Track4jProperties track4jProperties) {
-        DataSource track4jDataSource = new Track4jDataSourceManager().getDataSource();
-        StorageType storageType = track4jProperties.getStorageType();
+        StorageType[] sinks = track4jProperties.getSinks();
 
+        if (sinks.length > 1) {
+            FanOutRequestLogRepository fanOut = new FanOutRequestLogRepository(
+                    track4jProperties.getSinkQueueCapacity(),
+                    track4jProperties.getBatchSize(),
+                    track4jProperties.getFlushInterval(),
+                    track4jProperties.getShutdownTimeout());
+            for (StorageType sink : sinks) {
+                fanOut.addSink(sink.name().toLowerCase(Locale.ROOT), withResilience(createAdapter(sink, track4jProperties), track4jProperties));
+            }
+            setAdapter(fanOut);
+            return;
+        }
+
+        StorageType storageType = sinks.length == 1 ? sinks[0] : track4jProperties.getStorageType();
+        setAdapter(withResilience(createAdapter(storageType, track4jProperties), track4jProperties));
+    }
+
+    public RequestLogRepositoryAdapter getAdapter() {
+        return this.adapter;
+    }
+
+    public Track4jDataSourceManager getDataSourceManager() {
+        return this.dataSourceManager;
+    }
+
+    private void setAdapter(RequestLogRepositoryAdapter adapter) {
+        this.adapter = adapter;
+    }
+
+    private RequestLogRepositoryAdapter createAdapter(StorageType storageType, Track4jProperties track4jProperties) {
         switch (storageType) {
             case SQL:
+                if (this.dataSourceManager == null) {
+                    this.dataSourceManager = new Track4jDataSourceManager();
+                }
+                DataSource track4jDataSource = dataSourceManager.getDataSource();
                 if (track4jDataSource == null) {
                     throw new IllegalStateException("DataSource is required for SQL storage");
                 }
-                setAdapter(new SqlRequestLogRepository(track4jDataSource));
-                break;
+                return new SqlRequestLogRepository(track4jDataSource, track4jProperties);
+            case FILE:
+                return new FileRequestLogRepository(track4jProperties);
             case CUSTOM:
                 String customClass = track4jProperties.getCustomRepositoryClass();
                 if (customClass == null || customClass.isEmpty()) {
@@ -29,8 +70,7 @@ public class RequestLogRepositoryFactory {
                 }
                 try {
                     Class<?> clazz = Class.forName(customClass);
-                    setAdapter((RequestLogRepositoryAdapter) clazz.getDeclaredConstructor().newInstance());
-                    break;
+                    return (RequestLogRepositoryAdapter) clazz.getDeclaredConstructor().newInstance();
                 } catch (Exception e) {
                     throw new IllegalStateException("Failed to instantiate custom repository: " + customClass, e);
                 }
@@ -39,11 +79,19 @@ public class RequestLogRepositoryFactory {
         }
     }
 
-    public RequestLogRepositoryAdapter getAdapter() {
-        return this.adapter;
-    }
-
-    private void setAdapter(RequestLogRepositoryAdapter adapter) {
-        this.adapter = adapter;
+    private RequestLogRepositoryAdapter withResilience(RequestLogRepositoryAdapter adapter, Track4jProperties track4jProperties) {
+        if (!track4jProperties.isResilienceEnabled()) {
+            return adapter;
+        }
+        return new ResilientRequestLogRepository(
+                adapter,
+                new RetryPolicy(
+                        track4jProperties.getRetryMaxAttempts(),
+                        track4jProperties.getRetryInitialBackoff(),
+                        track4jProperties.getRetryMaxBackoff()),
+                new CircuitBreaker(
+                        track4jProperties.getCircuitBreakerFailureThreshold(),
+                        track4jProperties.getCircuitBreakerOpenDuration())
+        );
     }
-}
\ No newline at end of file
+}
@@ -8,11 +8,39 @@ import jakarta.annotation.PreDestroy;
 import javax.sql.DataSource;
 
 public class Track4jDataSourceManager {
+    private static final String SQLITE_URL_PREFIX = "jdbc:sqlite:";
+    private static final int SQLITE_OPEN_READONLY = 1;
+
     private final HikariDataSource dataSource;
-    
+    private final Track4jProperties track4jProperties;
+    private final boolean sqliteHighThroughput;
+    private HikariDataSource readDataSource;
+
     public Track4jDataSourceManager() {
         this.dataSource = new HikariDataSource();
-        Track4jProperties track4jProperties = Track4jServiceManager.getInstance().getProperties();
+        this.track4jProperties = Track4jServiceManager.getInstance().getProperties();
+        this.sqliteHighThroughput = isSqliteHighThroughput(track4jProperties);
+        configure(dataSource, track4jProperties.getPoolName());
+        if (sqliteHighThroughput) {
+            dataSource.addDataSourceProperty("journal_mode", "WAL");
+            dataSource.addDataSourceProperty("synchronous", "NORMAL");
+            dataSource.setMaxLifetime(0);
+            dataSource.setIdleTimeout(0);
+        }
+    }
+
+    public static boolean isSqliteHighThroughput(Track4jProperties track4jProperties) {
+        String url = track4jProperties.getConnectionUrl();
+        return track4jProperties.isSqliteHighThroughput()
+                && url != null && url.startsWith(SQLITE_URL_PREFIX)
+                && !url.contains(":memory:") && !url.contains("mode=memory");
+    }
+
+    public boolean isSqliteHighThroughput() {
+        return sqliteHighThroughput;
+    }
+
+    private void configure(HikariDataSource dataSource, String poolName) {
         dataSource.setJdbcUrl(track4jProperties.getConnectionUrl());
         if (track4jProperties.getConnectionUsername() != null && track4jProperties.getConnectionPassword() != null) {
             dataSource.setUsername(track4jProperties.getConnectionUsername());
@@ -25,16 +53,40 @@ public class Track4jDataSourceManager {
         dataSource.setIdleTimeout(track4jProperties.getIdleTimeout());
         dataSource.setMaxLifetime(track4jProperties.getMaxLifetime());
         dataSource.setAutoCommit(track4jProperties.isAutoCommit());
-        dataSource.setPoolName(track4jProperties.getPoolName());
+        dataSource.setPoolName(poolName);
         dataSource.setDriverClassName(track4jProperties.getDriverClassName());
+        if (sqliteHighThroughput) {
+            dataSource.addDataSourceProperty("cache_size", String.valueOf(track4jProperties.getSqliteCacheSize()));
+            dataSource.addDataSourceProperty("mmap_size", String.valueOf(track4jProperties.getSqliteMmapSize()));
+            dataSource.addDataSourceProperty("temp_store", "MEMORY");
+            dataSource.addDataSourceProperty("busy_timeout", String.valueOf(track4jProperties.getConnectionTimeout()));
+        }
     }
-    
+
     public DataSource getDataSource() {
         return dataSource;
     }
-    
+
+    public synchronized DataSource getReadDataSource() {
+        if (!sqliteHighThroughput) {
+            return dataSource;
+        }
+        if (readDataSource == null) {
+            HikariDataSource reader = new HikariDataSource();
+            configure(reader, track4jProperties.getPoolName() + "-read");
+            reader.addDataSourceProperty("open_mode", String.valueOf(SQLITE_OPEN_READONLY));
+            reader.setReadOnly(true);
+            reader.setAutoCommit(true);
+            readDataSource = reader;
+        }
+        return readDataSource;
+    }
+
     @PreDestroy
-    public void close() {
+    public synchronized void close() {
+        if (readDataSource != null && !readDataSource.isClosed()) {
+            readDataSource.close();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
         }
@@ -0,0 +1,7 @@
+package io.track4j.repository.dbrepository;
+
+enum IdColumnType {
+    STRING,
+    BINARY,
+    UUID
+}
@@ -0,0 +1,170 @@
+package io.track4j.repository.dbrepository;
+
+import io.track4j.helper.IdGenerator;
+import io.track4j.objects.RequestLog;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+final class InsertBatchWriter implements SqlBatchWriter {
+
+    static final int COLUMN_COUNT = 23;
+
+    private static final String INSERT_COLUMNS = " (id, trace_id, span_id, parent_span_id, operation_name, request_type,method, url," +
+            " request_headers, request_body, response_headers,response_body, status_code, start_time, end_time," +
+            " duration_ms,success, error_message, user_id, client_ip, tags, created_at, service_name) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final int rowsPerStatement;
+    private final boolean binaryPayloads;
+    private final String serviceName;
+    private final IdGenerator idGenerator;
+    private final IdColumnType idColumnType;
+    private volatile StatementCache statementCache;
+
+    InsertBatchWriter(SqlDialect dialect, boolean binaryPayloads, String serviceName,
+                      IdGenerator idGenerator, IdColumnType idColumnType) {
+        this.binaryPayloads = binaryPayloads;
+        this.serviceName = serviceName;
+        this.idGenerator = idGenerator;
+        this.idColumnType = idColumnType;
+        this.rowsPerStatement = dialect.rowsPerStatement(COLUMN_COUNT);
+        this.statementCache = new StatementCache(SqlRequestLogRepository.TABLE_NAME, rowsPerStatement);
+    }
+
+    int getRowsPerStatement() {
+        return rowsPerStatement;
+    }
+
+    @Override
+    public void write(Connection connection, String table, List<RequestLog> requestLogs, Object[] payloadValues)
+            throws SQLException {
+        int total = requestLogs.size();
+        int fullChunks = total / rowsPerStatement;
+        int remainder = total % rowsPerStatement;
+        int index = 0;
+
+        if (fullChunks > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(insertSql(table, rowsPerStatement))) {
+                for (int chunk = 0; chunk < fullChunks; chunk++) {
+                    index = bindChunk(ps, requestLogs, payloadValues, index, rowsPerStatement);
+                    ps.executeUpdate();
+                }
+            }
+        }
+        if (remainder > 0) {
+            try (PreparedStatement ps = connection.prepareStatement(insertSql(table, remainder))) {
+                bindChunk(ps, requestLogs, payloadValues, index, remainder);
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    String insertSql(String table, int rows) {
+        StatementCache cache = statementCache;
+        if (!cache.table.equals(table)) {
+            cache = new StatementCache(table, rowsPerStatement);
+            statementCache = cache;
+        }
+        String sql = cache.statements.get(rows);
+        if (sql == null) {
+            StringBuilder builder = new StringBuilder(32 + INSERT_COLUMNS.length() + rows * (ROW_PLACEHOLDERS.length() + 1));
+            builder.append("INSERT INTO ").append(table).append(INSERT_COLUMNS);
+            for (int i = 0; i < rows; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append(ROW_PLACEHOLDERS);
+            }
+            sql = builder.toString();
+            cache.statements.set(rows, sql);
+        }
+        return sql;
+    }
+
+    private int bindChunk(PreparedStatement ps, List<RequestLog> requestLogs, Object[] payloadValues,
+                                 int from, int rows) throws SQLException {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        for (int row = 0; row < rows; row++) {
+            int index = from + row;
+            int offset = row * COLUMN_COUNT;
+            RequestLog log = requestLogs.get(index);
+            bindId(ps, offset + 1);
+            setParameters(ps, offset, log, createdAt);
+            ps.setString(offset + 23, serviceName);
+            if (payloadValues != null) {
+                int base = index * PAYLOADS_PER_ROW;
+                bindPayload(ps, offset + 9, payloadValues[base + REQUEST_HEADERS]);
+                bindPayload(ps, offset + 10, payloadValues[base + REQUEST_BODY]);
+                bindPayload(ps, offset + 11, payloadValues[base + RESPONSE_HEADERS]);
+                bindPayload(ps, offset + 12, payloadValues[base + RESPONSE_BODY]);
+            } else {
+                ps.setString(offset + 9, log.getRequestHeaders());
+                ps.setString(offset + 10, log.getRequestBody());
+                ps.setString(offset + 11, log.getResponseHeaders());
+                ps.setString(offset + 12, log.getResponseBody());
+            }
+        }
+        return from + rows;
+    }
+
+    private void bindPayload(PreparedStatement ps, int index, Object value) throws SQLException {
+        if (value instanceof byte[]) {
+            ps.setBytes(index, (byte[]) value);
+        } else if (value == null && binaryPayloads) {
+            ps.setNull(index, Types.VARBINARY);
+        } else {
+            ps.setString(index, (String) value);
+        }
+    }
+
+    private void bindId(PreparedStatement ps, int index) throws SQLException {
+        switch (idColumnType) {
+            case UUID:
+                ps.setObject(index, idGenerator.nextId());
+                break;
+            case BINARY:
+                ps.setBytes(index, IdGenerator.toBytes(idGenerator.nextId()));
+                break;
+            default:
+                ps.setString(index, idGenerator.nextId().toString());
+        }
+    }
+
+    private static void setParameters(PreparedStatement ps, int offset, RequestLog log, Timestamp createdAt)
+            throws SQLException {
+        ps.setString(offset + 2, log.getTraceId());
+        ps.setString(offset + 3, log.getSpanId());
+        ps.setString(offset + 4, log.getParentSpanId());
+        ps.setString(offset + 5, log.getOperationName());
+        ps.setString(offset + 6, log.getRequestType() != null ? log.getRequestType().getValue() : null);
+        ps.setString(offset + 7, log.getMethod());
+        ps.setString(offset + 8, log.getUrl());
+        ps.setObject(offset + 13, log.getStatusCode());
+        ps.setTimestamp(offset + 14, log.getStartTime() != null ? Timestamp.valueOf(log.getStartTime()) : null);
+        ps.setTimestamp(offset + 15, log.getEndTime() != null ? Timestamp.valueOf(log.getEndTime()) : null);
+        ps.setObject(offset + 16, log.getDurationMs());
+        ps.setObject(offset + 17, log.getSuccess());
+        ps.setString(offset + 18, log.getErrorMessage());
+        ps.setString(offset + 19, log.getUserId());
+        ps.setString(offset + 20, log.getClientIp());
+        ps.setString(offset + 21, log.getTags());
+        ps.setTimestamp(offset + 22, createdAt);
+    }
+
+    private static final class StatementCache {
+        private final String table;
+        private final AtomicReferenceArray<String> statements;
+
+        private StatementCache(String table, int maxRows) {
+            this.table = table;
+            this.statements = new AtomicReferenceArray<>(maxRows + 1);
+        }
+    }
+}
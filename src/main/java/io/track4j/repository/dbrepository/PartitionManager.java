@@ -0,0 +1,181 @@
+package io.track4j.repository.dbrepository;
+
+import io.track4j.properties.PartitionGranularity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+final class PartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionManager.class);
+
+    static final String PARTITION_PREFIX = SqlRequestLogRepository.TABLE_NAME + "_p";
+    static final String SQLITE_VIEW_NAME = SqlRequestLogRepository.TABLE_NAME + "_all";
+
+    private static final DateTimeFormatter DAILY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter HOURLY_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMddHH").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter POSTGRES_BOUND = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss'+00'").withZone(ZoneOffset.UTC);
+
+    private final SqlDialect dialect;
+    private final PartitionGranularity granularity;
+    private final long retentionMillis;
+    private final int precreate;
+    private final SchemaManager schemaManager;
+    private final IdColumnType idColumnType;
+
+    private volatile long currentPeriodEnd;
+    private volatile String currentTable = SqlRequestLogRepository.TABLE_NAME;
+    private boolean partitionsDropped;
+
+    PartitionManager(SqlDialect dialect, PartitionGranularity granularity, long retentionMillis, int precreate,
+                     SchemaManager schemaManager, IdColumnType idColumnType) {
+        this.schemaManager = schemaManager;
+        this.idColumnType = idColumnType;
+        this.dialect = dialect;
+        this.granularity = granularity;
+        this.retentionMillis = retentionMillis;
+        this.precreate = Math.max(0, precreate);
+    }
+
+    static boolean isSupported(SqlDialect dialect) {
+        return dialect == SqlDialect.POSTGRESQL || dialect == SqlDialect.SQLITE;
+    }
+
+    String currentTable(Connection connection) throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now >= currentPeriodEnd) {
+            maintain(connection, now);
+        }
+        return currentTable;
+    }
+
+    synchronized void maintain(Connection connection, long now) throws SQLException {
+        if (now < currentPeriodEnd) {
+            return;
+        }
+        long period = granularity.getPeriodMillis();
+        long periodStart = Math.floorDiv(now, period) * period;
+
+        try (Statement statement = connection.createStatement()) {
+            for (int i = 0; i <= precreate; i++) {
+                long start = periodStart + i * period;
+                statement.execute(createPartitionSql(start, start + period));
+                if (dialect == SqlDialect.SQLITE) {
+                    for (String ddl : schemaManager.indexStatements(connection, partitionName(start))) {
+                        statement.execute(ddl);
+                    }
+                }
+            }
+
+            List<String> dropped = new ArrayList<>();
+            if (retentionMillis > 0) {
+                for (String partition : listPartitions(statement)) {
+                    long start = parsePeriodStart(partition);
+                    if (start >= 0 && start + period <= now - retentionMillis) {
+                        statement.execute("DROP TABLE IF EXISTS " + partition);
+                        dropped.add(partition);
+                    }
+                }
+            }
+            if (dialect == SqlDialect.SQLITE) {
+                refreshSqliteView(statement);
+            }
+            if (!connection.getAutoCommit()) {
+                connection.commit();
+            }
+            if (!dropped.isEmpty()) {
+                partitionsDropped = true;
+                logger.info("Track4j: Dropped expired partitions {}", dropped);
+            }
+        } catch (SQLException e) {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            throw e;
+        }
+
+        currentTable = dialect == SqlDialect.SQLITE ? partitionName(periodStart) : SqlRequestLogRepository.TABLE_NAME;
+        currentPeriodEnd = periodStart + period;
+    }
+
+    synchronized boolean takeDroppedPartitions() {
+        boolean dropped = partitionsDropped;
+        partitionsDropped = false;
+        return dropped;
+    }
+
+    List<String> requestLogTables(Connection connection) throws SQLException {
+        return schemaManager.requestLogTables(connection);
+    }
+
+    private String createPartitionSql(long start, long end) {
+        String partition = partitionName(start);
+        if (dialect == SqlDialect.POSTGRESQL) {
+            return "CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + SqlRequestLogRepository.TABLE_NAME +
+                    " FOR VALUES FROM ('" + POSTGRES_BOUND.format(Instant.ofEpochMilli(start)) +
+                    "') TO ('" + POSTGRES_BOUND.format(Instant.ofEpochMilli(end)) + "')";
+        }
+        return schemaManager.createRequestLogsTable(partition, idColumnType);
+    }
+
+    private List<String> listPartitions(Statement statement) throws SQLException {
+        String sql = dialect == SqlDialect.POSTGRESQL
+                ? "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                  "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = '" + SqlRequestLogRepository.TABLE_NAME + "'"
+                : "SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE '" + PARTITION_PREFIX + "%'";
+        List<String> partitions = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery(sql)) {
+            while (rs.next()) {
+                partitions.add(rs.getString(1));
+            }
+        }
+        Collections.sort(partitions);
+        return partitions;
+    }
+
+    private void refreshSqliteView(Statement statement) throws SQLException {
+        StringBuilder view = new StringBuilder("CREATE VIEW ").append(SQLITE_VIEW_NAME).append(" AS SELECT ")
+                .append(SchemaManager.REQUEST_LOG_COLUMNS).append(" FROM ").append(SqlRequestLogRepository.TABLE_NAME);
+        for (String partition : listPartitions(statement)) {
+            view.append(" UNION ALL SELECT ").append(SchemaManager.REQUEST_LOG_COLUMNS).append(" FROM ").append(partition);
+        }
+        statement.execute("DROP VIEW IF EXISTS " + SQLITE_VIEW_NAME);
+        statement.execute(view.toString());
+    }
+
+    String partitionName(long periodStart) {
+        DateTimeFormatter suffix = granularity == PartitionGranularity.HOURLY ? HOURLY_SUFFIX : DAILY_SUFFIX;
+        return PARTITION_PREFIX + suffix.format(Instant.ofEpochMilli(periodStart));
+    }
+
+    long parsePeriodStart(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return -1;
+        }
+        String suffix = partition.substring(PARTITION_PREFIX.length());
+        int expected = granularity == PartitionGranularity.HOURLY ? 10 : 8;
+        if (suffix.length() != expected) {
+            return -1;
+        }
+        try {
+            int year = Integer.parseInt(suffix.substring(0, 4));
+            int month = Integer.parseInt(suffix.substring(4, 6));
+            int day = Integer.parseInt(suffix.substring(6, 8));
+            int hour = expected == 10 ? Integer.parseInt(suffix.substring(8, 10)) : 0;
+            return LocalDateTime.of(year, month, day, hour, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+}
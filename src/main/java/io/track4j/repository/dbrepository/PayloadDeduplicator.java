@@ -0,0 +1,213 @@
+package io.track4j.repository.dbrepository;
+
+import io.track4j.helper.ByteArrayBuilder;
+import io.track4j.helper.PayloadCompressor;
+import io.track4j.objects.RequestLog;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+final class PayloadDeduplicator {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(PayloadDeduplicator::newDigest);
+    private static final ThreadLocal<ByteArrayBuilder> utf8Buffer = ThreadLocal.withInitial(ByteArrayBuilder::new);
+
+    private final Map<String, Boolean> persisted;
+    private final PayloadCompressor compressor;
+
+    PayloadDeduplicator(int cacheSize, PayloadCompressor compressor) {
+        this.compressor = compressor;
+        this.persisted = new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    PayloadBatch store(Connection connection, List<RequestLog> requestLogs, SqlDialect dialect) throws SQLException {
+        String[] refs = new String[requestLogs.size() * SqlBatchWriter.PAYLOADS_PER_ROW];
+        List<PendingPayload> pending = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (int i = 0; i < requestLogs.size(); i++) {
+            RequestLog log = requestLogs.get(i);
+            int base = i * SqlBatchWriter.PAYLOADS_PER_ROW;
+            refs[base + SqlBatchWriter.REQUEST_HEADERS] = reference(log.getRequestHeadersUtf8(), null, pending, seen);
+            refs[base + SqlBatchWriter.REQUEST_BODY] = reference(null, log.getRequestBody(), pending, seen);
+            refs[base + SqlBatchWriter.RESPONSE_HEADERS] = reference(log.getResponseHeadersUtf8(), null, pending, seen);
+            refs[base + SqlBatchWriter.RESPONSE_BODY] = reference(null, log.getResponseBody(), pending, seen);
+        }
+
+        List<String> hashes = new ArrayList<>(pending.size());
+        if (!pending.isEmpty()) {
+            // every writer inserts in hash order so concurrent batches lock payload rows in the same order
+            pending.sort(Comparator.comparing(payload -> payload.hash));
+            try (PreparedStatement ps = connection.prepareStatement(insertSql(dialect))) {
+                for (PendingPayload payload : pending) {
+                    ps.setString(1, payload.hash);
+                    if (payload.content instanceof byte[]) {
+                        ps.setBytes(2, (byte[]) payload.content);
+                    } else {
+                        ps.setString(2, (String) payload.content);
+                    }
+                    ps.setInt(3, payload.size);
+                    if (requiresExistenceCheck(dialect)) {
+                        ps.setString(4, payload.hash);
+                    }
+                    ps.addBatch();
+                    hashes.add(payload.hash);
+                }
+                ps.executeBatch();
+            }
+        }
+        return new PayloadBatch(refs, hashes);
+    }
+
+    void markPersisted(PayloadBatch batch) {
+        synchronized (persisted) {
+            for (String hash : batch.pending) {
+                persisted.put(hash, Boolean.TRUE);
+            }
+        }
+    }
+
+    int collectOrphans(Connection connection, List<String> tables) throws SQLException {
+        StringBuilder referenced = new StringBuilder();
+        for (String table : tables) {
+            for (String column : new String[]{"request_headers", "request_body", "response_headers", "response_body"}) {
+                if (referenced.length() > 0) {
+                    referenced.append(" UNION ");
+                }
+                referenced.append("SELECT ").append(column).append(" FROM ").append(table)
+                        .append(" WHERE ").append(column).append(" IS NOT NULL");
+            }
+        }
+        int deleted;
+        try (Statement statement = connection.createStatement()) {
+            deleted = statement.executeUpdate("DELETE FROM " + SchemaManager.PAYLOAD_TABLE +
+                    " WHERE hash NOT IN (" + referenced + ")");
+        }
+        synchronized (persisted) {
+            persisted.clear();
+        }
+        return deleted;
+    }
+
+    int getCachedCount() {
+        synchronized (persisted) {
+            return persisted.size();
+        }
+    }
+
+    private String reference(byte[] utf8, String text, List<PendingPayload> pending, Set<String> seen) {
+        if (utf8 == null && text == null) {
+            return null;
+        }
+        MessageDigest digest = sha256.get();
+        byte[] source = utf8;
+        int size;
+        if (utf8 != null) {
+            size = utf8.length;
+        } else {
+            ByteArrayBuilder buffer = utf8Buffer.get().reset();
+            buffer.writeUtf8(text);
+            source = buffer.array();
+            size = buffer.length();
+        }
+        digest.update(source, 0, size);
+        String hash = toHex(digest.digest());
+
+        if (!seen.add(hash) || isPersisted(hash)) {
+            return hash;
+        }
+        Object content = compressor != null
+                ? compressor.encode(source, 0, size)
+                : (text != null ? text : new String(utf8, StandardCharsets.UTF_8));
+        pending.add(new PendingPayload(hash, content, size));
+        return hash;
+    }
+
+    private boolean isPersisted(String hash) {
+        synchronized (persisted) {
+            return persisted.get(hash) != null;
+        }
+    }
+
+    private static String insertSql(SqlDialect dialect) {
+        switch (dialect) {
+            case SQLITE:
+                return "INSERT OR IGNORE INTO payloads (hash, content, size) VALUES (?, ?, ?)";
+            case POSTGRESQL:
+                return "INSERT INTO payloads (hash, content, size) VALUES (?, ?, ?) ON CONFLICT (hash) DO NOTHING";
+            case MYSQL:
+            case MARIADB:
+                return "INSERT IGNORE INTO payloads (hash, content, size) VALUES (?, ?, ?)";
+            case H2:
+                return "MERGE INTO payloads (hash, content, size) KEY (hash) VALUES (?, ?, ?)";
+            default:
+                return "INSERT INTO payloads (hash, content, size) SELECT ?, ?, ? " +
+                        "WHERE NOT EXISTS (SELECT 1 FROM payloads WHERE hash = ?)";
+        }
+    }
+
+    private static boolean requiresExistenceCheck(SqlDialect dialect) {
+        return dialect == SqlDialect.SQLSERVER || dialect == SqlDialect.GENERIC;
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class PendingPayload {
+        private final String hash;
+        private final Object content;
+        private final int size;
+
+        private PendingPayload(String hash, Object content, int size) {
+            this.hash = hash;
+            this.content = content;
+            this.size = size;
+        }
+    }
+
+    static final class PayloadBatch {
+        private final String[] refs;
+        private final List<String> pending;
+
+        private PayloadBatch(String[] refs, List<String> pending) {
+            this.refs = refs;
+            this.pending = pending;
+        }
+
+        String[] getRefs() {
+            return refs;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package io.track4j.repository.dbrepository;
+
+import io.track4j.helper.ByteArrayBuilder;
+import io.track4j.helper.IdGenerator;
+import io.track4j.objects.RequestLog;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.List;
+import java.util.UUID;
+
+final class PostgresCopyBatchWriter implements SqlBatchWriter {
+
+    static final String DRIVER_CLASS = "org.postgresql.PGConnection";
+
+    private static final String COPY_COLUMNS = " (id, trace_id, span_id, parent_span_id, operation_name, request_type, method, url," +
+            " request_headers, request_body, response_headers, response_body, status_code, start_time, end_time," +
+            " duration_ms, success, error_message, user_id, client_ip, tags, created_at, service_name) " +
+            "FROM STDIN (FORMAT BINARY)";
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 23;
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+    private static final long POSTGRES_EPOCH_SECONDS = 946_684_800L;
+
+    private static final ThreadLocal<ByteArrayBuilder> copyBuffer =
+            ThreadLocal.withInitial(() -> new ByteArrayBuilder(FLUSH_THRESHOLD + 8 * 1024));
+    private final String serviceName;
+    private final IdGenerator idGenerator;
+    private final ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+
+    PostgresCopyBatchWriter(String serviceName, IdGenerator idGenerator) {
+        this.serviceName = serviceName;
+        this.idGenerator = idGenerator;
+    }
+
+    static boolean isDriverAvailable() {
+        try {
+            Class.forName(DRIVER_CLASS, false, PostgresCopyBatchWriter.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void write(Connection connection, String table, List<RequestLog> requestLogs, Object[] payloadValues)
+            throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn("COPY " + table + COPY_COLUMNS);
+        ByteArrayBuilder buffer = copyBuffer.get().reset();
+        try {
+            buffer.writeBytes(SIGNATURE, 0, SIGNATURE.length);
+            buffer.writeInt(0);
+            buffer.writeInt(0);
+
+            long createdAt = toPostgresMicros(LocalDateTime.now());
+            for (int i = 0; i < requestLogs.size(); i++) {
+                writeRow(buffer, requestLogs.get(i), payloadValues, i * PAYLOADS_PER_ROW, createdAt);
+                if (buffer.length() >= FLUSH_THRESHOLD) {
+                    copyIn.writeToCopy(buffer.array(), 0, buffer.length());
+                    buffer.reset();
+                }
+            }
+
+            buffer.writeShort(-1);
+            copyIn.writeToCopy(buffer.array(), 0, buffer.length());
+            copyIn.endCopy();
+        } finally {
+            buffer.reset();
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void writeRow(ByteArrayBuilder buffer, RequestLog log, Object[] payloadValues, int refBase, long createdAt) {
+        buffer.writeShort(FIELD_COUNT);
+
+        UUID id = idGenerator.nextId();
+        buffer.writeInt(16);
+        buffer.writeLong(id.getMostSignificantBits());
+        buffer.writeLong(id.getLeastSignificantBits());
+
+        writeText(buffer, log.getTraceId());
+        writeText(buffer, log.getSpanId());
+        writeText(buffer, log.getParentSpanId());
+        writeText(buffer, log.getOperationName());
+        writeText(buffer, log.getRequestType() != null ? log.getRequestType().getValue() : null);
+        writeText(buffer, log.getMethod());
+        writeText(buffer, log.getUrl());
+        if (payloadValues != null) {
+            writePayload(buffer, payloadValues[refBase + REQUEST_HEADERS]);
+            writePayload(buffer, payloadValues[refBase + REQUEST_BODY]);
+            writePayload(buffer, payloadValues[refBase + RESPONSE_HEADERS]);
+            writePayload(buffer, payloadValues[refBase + RESPONSE_BODY]);
+        } else {
+            writeBytes(buffer, log.getRequestHeadersUtf8());
+            writeText(buffer, log.getRequestBody());
+            writeBytes(buffer, log.getResponseHeadersUtf8());
+            writeText(buffer, log.getResponseBody());
+        }
+
+        buffer.writeInt(4);
+        buffer.writeInt(log.getStatusCode());
+        writeTimestamp(buffer, log.getStartTime());
+        writeTimestamp(buffer, log.getEndTime());
+        buffer.writeInt(4);
+        buffer.writeInt((int) log.getDurationMs());
+        buffer.writeInt(1);
+        buffer.writeByte(log.getSuccess() ? 1 : 0);
+
+        writeText(buffer, log.getErrorMessage());
+        writeText(buffer, log.getUserId());
+        writeText(buffer, log.getClientIp());
+        writeText(buffer, log.getTags());
+
+        buffer.writeInt(8);
+        buffer.writeLong(createdAt);
+        writeText(buffer, serviceName);
+    }
+
+    private static void writePayload(ByteArrayBuilder buffer, Object value) {
+        if (value instanceof byte[]) {
+            writeBytes(buffer, (byte[]) value);
+        } else {
+            writeText(buffer, (String) value);
+        }
+    }
+
+    private static void writeText(ByteArrayBuilder buffer, String value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        int lengthPosition = buffer.length();
+        buffer.writeInt(0);
+        buffer.writeUtf8(value);
+        buffer.putInt(lengthPosition, buffer.length() - lengthPosition - 4);
+    }
+
+    private static void writeBytes(ByteArrayBuilder buffer, byte[] value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        buffer.writeInt(value.length);
+        buffer.writeBytes(value, 0, value.length);
+    }
+
+    private void writeTimestamp(ByteArrayBuilder buffer, LocalDateTime value) {
+        if (value == null) {
+            buffer.writeInt(-1);
+            return;
+        }
+        buffer.writeInt(8);
+        buffer.writeLong(toPostgresMicros(value));
+    }
+
+    private long toPostgresMicros(LocalDateTime value) {
+        long epochSecond = value.toEpochSecond(zoneRules.getOffset(value));
+        return (epochSecond - POSTGRES_EPOCH_SECONDS) * 1_000_000L + value.getNano() / 1_000;
+    }
+}
@@ -0,0 +1,394 @@
+package io.track4j.repository.dbrepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+final class SchemaManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaManager.class);
+
+    static final String VERSION_TABLE = "track4j_schema_version";
+    static final String PAYLOAD_TABLE = "payloads";
+    static final int CURRENT_VERSION = 3;
+    static final String REQUEST_LOG_COLUMNS = "id, trace_id, span_id, parent_span_id, service_name, operation_name, " +
+            "request_type, method, url, request_headers, request_body, response_headers, response_body, status_code, " +
+            "start_time, end_time, duration_ms, success, error_message, user_id, client_ip, tags, created_at";
+
+    private final SqlDialect dialect;
+    private final boolean partitioned;
+    private final boolean compressed;
+    private final boolean payloadTable;
+
+    SchemaManager(SqlDialect dialect, boolean partitioned, boolean compressed, boolean payloadTable) {
+        this.dialect = dialect;
+        this.partitioned = partitioned;
+        this.compressed = compressed;
+        this.payloadTable = payloadTable;
+    }
+
+    void migrate(Connection connection) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            if (!tableExists(connection, VERSION_TABLE)) {
+                statement.execute("CREATE TABLE " + VERSION_TABLE +
+                        " (version INTEGER NOT NULL PRIMARY KEY, applied_at " + timestampType() + ")");
+                connection.commit();
+            }
+
+            int version = currentVersion(statement);
+            for (int next = version + 1; next <= CURRENT_VERSION; next++) {
+                for (String ddl : migration(connection, next)) {
+                    statement.execute(ddl);
+                }
+                try (PreparedStatement ps = connection.prepareStatement(
+                        "INSERT INTO " + VERSION_TABLE + " (version, applied_at) VALUES (?, ?)")) {
+                    ps.setInt(1, next);
+                    ps.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+                    ps.executeUpdate();
+                }
+                connection.commit();
+                logger.info("Track4j: Applied schema version {}", next);
+            }
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    List<String> indexStatements(Connection connection, String table) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        Set<String> existing = supportsIndexIfNotExists() ? Collections.emptySet() : indexNames(connection, table);
+        String operationName = dialect == SqlDialect.MYSQL || dialect == SqlDialect.MARIADB
+                ? "operation_name(191)"
+                : "operation_name";
+        addIndex(statements, existing, "idx_" + table + "_trace_id", table, "trace_id", null);
+        addIndex(statements, existing, "idx_" + table + "_start_time", table, "start_time", null);
+        addIndex(statements, existing, "idx_" + table + "_operation_start", table, operationName + ", start_time", null);
+        if (dialect == SqlDialect.POSTGRESQL) {
+            addIndex(statements, existing, "idx_" + table + "_failed", table, "start_time", "success = false");
+        } else if (dialect == SqlDialect.SQLITE) {
+            addIndex(statements, existing, "idx_" + table + "_failed", table, "start_time", "success = 0");
+        } else {
+            addIndex(statements, existing, "idx_" + table + "_failed", table, "success, start_time", null);
+        }
+        return statements;
+    }
+
+    private List<String> migration(Connection connection, int version) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        switch (version) {
+            case 1:
+                if (!tableExists(connection, SqlRequestLogRepository.TABLE_NAME)) {
+                    statements.add(createRequestLogsTable(SqlRequestLogRepository.TABLE_NAME, null));
+                }
+                if (payloadTable && !tableExists(connection, PAYLOAD_TABLE)) {
+                    statements.add("CREATE TABLE " + PAYLOAD_TABLE + " (hash VARCHAR(64) NOT NULL PRIMARY KEY, " +
+                            "content " + (compressed ? binaryType() : textType()) + ", size INTEGER)");
+                }
+                break;
+            case 2:
+                for (String table : requestLogTables(connection)) {
+                    if (!hasColumn(connection, table, "service_name")) {
+                        statements.add("ALTER TABLE " + table + " ADD " + columnKeyword() + "service_name VARCHAR(100)");
+                    }
+                }
+                break;
+            case 3:
+                statements.addAll(indexStatements(connection, SqlRequestLogRepository.TABLE_NAME));
+                if (dialect == SqlDialect.SQLITE) {
+                    for (String table : requestLogTables(connection)) {
+                        if (!table.equals(SqlRequestLogRepository.TABLE_NAME)) {
+                            statements.addAll(indexStatements(connection, table));
+                        }
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Unknown schema version " + version);
+        }
+        return statements;
+    }
+
+    String createRequestLogsTable(String table, IdColumnType idColumnType) {
+        String payloadType = compressed && !payloadTable ? binaryType() : textType();
+        boolean postgresPartitioned = partitioned && dialect == SqlDialect.POSTGRESQL
+                && table.equals(SqlRequestLogRepository.TABLE_NAME);
+        StringBuilder ddl = new StringBuilder("CREATE TABLE ")
+                .append(table.equals(SqlRequestLogRepository.TABLE_NAME) ? "" : "IF NOT EXISTS ")
+                .append(table).append(" (")
+                .append("id ").append(idColumnType == IdColumnType.STRING ? "VARCHAR(36)" : idType()).append(" NOT NULL")
+                .append(postgresPartitioned ? "" : " PRIMARY KEY").append(", ")
+                .append("trace_id VARCHAR(48) NOT NULL, ")
+                .append("span_id VARCHAR(11), ")
+                .append("parent_span_id VARCHAR(11), ")
+                .append("service_name VARCHAR(100), ")
+                .append("operation_name VARCHAR(2055), ")
+                .append("request_type VARCHAR(8), ")
+                .append("method VARCHAR(6), ")
+                .append("url VARCHAR(2048), ")
+                .append("request_headers ").append(payloadType).append(", ")
+                .append("request_body ").append(payloadType).append(", ")
+                .append("response_headers ").append(payloadType).append(", ")
+                .append("response_body ").append(payloadType).append(", ")
+                .append("status_code INTEGER, ")
+                .append("start_time ").append(timestampType()).append(", ")
+                .append("end_time ").append(timestampType()).append(", ")
+                .append("duration_ms INTEGER, ")
+                .append("success ").append(booleanType()).append(", ")
+                .append("error_message ").append(textType()).append(", ")
+                .append("user_id VARCHAR(100), ")
+                .append("client_ip VARCHAR(45), ")
+                .append("tags ").append(textType()).append(", ")
+                .append("created_at ").append(timestampType()).append(" NOT NULL");
+        if (postgresPartitioned) {
+            ddl.append(", PRIMARY KEY (id, created_at)) PARTITION BY RANGE (created_at)");
+        } else {
+            ddl.append(")");
+        }
+        return ddl.toString();
+    }
+
+    private int currentVersion(Statement statement) throws SQLException {
+        try (ResultSet rs = statement.executeQuery("SELECT MAX(version) FROM " + VERSION_TABLE)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    boolean hasInlinePayloads(Connection connection) throws SQLException {
+        if (tableExists(connection, PAYLOAD_TABLE) && hasRows(connection, PAYLOAD_TABLE, null)) {
+            return false;
+        }
+        for (String table : requestLogTables(connection)) {
+            if (hasRows(connection, table, "request_headers IS NOT NULL OR request_body IS NOT NULL " +
+                    "OR response_headers IS NOT NULL OR response_body IS NOT NULL")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    List<String> requestLogTables(Connection connection) throws SQLException {
+        List<String> tables = new ArrayList<>();
+        tables.add(SqlRequestLogRepository.TABLE_NAME);
+        if (dialect == SqlDialect.SQLITE) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("SELECT name FROM sqlite_master WHERE type = 'table' AND name LIKE '"
+                         + PartitionManager.PARTITION_PREFIX + "%'")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+        }
+        return tables;
+    }
+
+    private static boolean hasRows(Connection connection, String table, String where) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.setMaxRows(1);
+            try (ResultSet rs = statement.executeQuery("SELECT 1 FROM " + table + (where != null ? " WHERE " + where : ""))) {
+                return rs.next();
+            }
+        }
+    }
+
+    private boolean tableExists(Connection connection, String table) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String candidate : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = metaData.getTables(null, null, candidate, null)) {
+                if (rs.next()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean hasColumn(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String candidate : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = metaData.getColumns(null, null, candidate, null)) {
+                while (rs.next()) {
+                    if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private void addIndex(List<String> statements, Set<String> existing,
+                          String name, String table, String columns, String where) {
+        if (!existing.contains(name.toLowerCase(Locale.ROOT))) {
+            statements.add("CREATE INDEX " + (supportsIndexIfNotExists() ? "IF NOT EXISTS " : "") + name +
+                    " ON " + table + " (" + columns + ")" + (where != null ? " WHERE " + where : ""));
+        }
+    }
+
+    private Set<String> indexNames(Connection connection, String table) throws SQLException {
+        Set<String> names = new HashSet<>();
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String candidate : new String[]{table, table.toUpperCase()}) {
+            try (ResultSet rs = metaData.getIndexInfo(null, null, candidate, false, true)) {
+                while (rs.next()) {
+                    String name = rs.getString("INDEX_NAME");
+                    if (name != null) {
+                        names.add(name.toLowerCase(Locale.ROOT));
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private boolean supportsIndexIfNotExists() {
+        return dialect == SqlDialect.SQLITE || dialect == SqlDialect.POSTGRESQL
+                || dialect == SqlDialect.H2 || dialect == SqlDialect.MARIADB;
+    }
+
+    private String columnKeyword() {
+        return dialect == SqlDialect.SQLITE || dialect == SqlDialect.POSTGRESQL || dialect == SqlDialect.H2
+                || dialect == SqlDialect.MYSQL || dialect == SqlDialect.MARIADB ? "COLUMN " : "";
+    }
+
+    static IdColumnType detectIdColumnType(Connection connection, SqlDialect dialect) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String candidate : new String[]{SqlRequestLogRepository.TABLE_NAME, SqlRequestLogRepository.TABLE_NAME.toUpperCase()}) {
+            try (ResultSet rs = metaData.getColumns(null, null, candidate, null)) {
+                while (rs.next()) {
+                    if (!"id".equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                        continue;
+                    }
+                    String typeName = String.valueOf(rs.getString("TYPE_NAME")).toUpperCase();
+                    if (typeName.equals("UUID")) {
+                        return IdColumnType.UUID;
+                    }
+                    return isBinaryType(typeName, rs.getInt("DATA_TYPE")) ? IdColumnType.BINARY : IdColumnType.STRING;
+                }
+            }
+        }
+        return dialect == SqlDialect.POSTGRESQL ? IdColumnType.UUID : IdColumnType.STRING;
+    }
+
+    static boolean hasBinaryColumns(Connection connection, String table, String... columns) throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        for (String candidate : new String[]{table, table.toUpperCase()}) {
+            int binary = 0;
+            boolean found = false;
+            try (ResultSet rs = metaData.getColumns(null, null, candidate, null)) {
+                while (rs.next()) {
+                    found = true;
+                    String column = rs.getString("COLUMN_NAME");
+                    for (String expected : columns) {
+                        if (expected.equalsIgnoreCase(column)) {
+                            if (!isBinaryType(String.valueOf(rs.getString("TYPE_NAME")).toUpperCase(), rs.getInt("DATA_TYPE"))) {
+                                return false;
+                            }
+                            binary++;
+                        }
+                    }
+                }
+            }
+            if (found) {
+                return binary == columns.length;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBinaryType(String typeName, int dataType) {
+        if (typeName.contains("BLOB") || typeName.contains("BINARY") || typeName.equals("BYTEA")) {
+            return true;
+        }
+        switch (dataType) {
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private String idType() {
+        switch (dialect) {
+            case POSTGRESQL:
+            case H2:
+                return "UUID";
+            case SQLITE:
+                return "BLOB";
+            case MYSQL:
+            case MARIADB:
+            case SQLSERVER:
+                return "BINARY(16)";
+            default:
+                return "VARCHAR(36)";
+        }
+    }
+
+    private String textType() {
+        switch (dialect) {
+            case SQLITE:
+            case POSTGRESQL:
+                return "TEXT";
+            case MYSQL:
+            case MARIADB:
+                return "LONGTEXT";
+            case SQLSERVER:
+                return "NVARCHAR(MAX)";
+            default:
+                return "CLOB";
+        }
+    }
+
+    private String binaryType() {
+        switch (dialect) {
+            case POSTGRESQL:
+                return "BYTEA";
+            case MYSQL:
+            case MARIADB:
+                return "LONGBLOB";
+            case SQLSERVER:
+                return "VARBINARY(MAX)";
+            default:
+                return "BLOB";
+        }
+    }
+
+    private String timestampType() {
+        switch (dialect) {
+            case POSTGRESQL:
+                return "TIMESTAMP WITH TIME ZONE";
+            case MYSQL:
+            case MARIADB:
+                return "DATETIME(3)";
+            case SQLSERVER:
+                return "DATETIME2";
+            default:
+                return "TIMESTAMP";
+        }
+    }
+
+    private String booleanType() {
+        return dialect == SqlDialect.SQLSERVER ? "BIT" : "BOOLEAN";
+    }
+}
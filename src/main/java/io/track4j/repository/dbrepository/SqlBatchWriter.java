@@ -0,0 +1,19 @@
+package io.track4j.repository.dbrepository;
+
+import io.track4j.objects.RequestLog;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+interface SqlBatchWriter {
+
+    int PAYLOADS_PER_ROW = 4;
+    int REQUEST_HEADERS = 0;
+    int REQUEST_BODY = 1;
+    int RESPONSE_HEADERS = 2;
+    int RESPONSE_BODY = 3;
+
+    void write(Connection connection, String table, List<RequestLog> requestLogs, Object[] payloadValues)
+            throws SQLException;
+}
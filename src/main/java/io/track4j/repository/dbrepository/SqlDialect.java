@@ -0,0 +1,42 @@
+package io.track4j.repository.dbrepository;
+
+public enum SqlDialect {
+    SQLITE("sqlite", 32766),
+    POSTGRESQL("postgresql", 32767),
+    MYSQL("mysql", 65535),
+    MARIADB("mariadb", 65535),
+    H2("h2", 32767),
+    SQLSERVER("microsoft sql server", 2100),
+    GENERIC("", 999);
+
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private final String productName;
+    private final int maxParameters;
+
+    SqlDialect(String productName, int maxParameters) {
+        this.productName = productName;
+        this.maxParameters = maxParameters;
+    }
+
+    public static SqlDialect fromProductName(String databaseProductName) {
+        if (databaseProductName == null) {
+            return GENERIC;
+        }
+        String name = databaseProductName.toLowerCase();
+        for (SqlDialect dialect : values()) {
+            if (dialect != GENERIC && name.contains(dialect.productName)) {
+                return dialect;
+            }
+        }
+        return GENERIC;
+    }
+
+    public int getMaxParameters() {
+        return this.maxParameters;
+    }
+
+    public int rowsPerStatement(int parametersPerRow) {
+        return Math.max(1, Math.min(MAX_ROWS_PER_STATEMENT, this.maxParameters / parametersPerRow));
+    }
+}
@@ -1,38 +1,87 @@
 package io.track4j.repository.dbrepository;
 
+import io.track4j.helper.IdGenerator;
+import io.track4j.helper.PayloadCompressor;
 import io.track4j.objects.RequestLog;
+import io.track4j.properties.CompressionAlgorithm;
+import io.track4j.properties.PartitionGranularity;
+import io.track4j.properties.Track4jProperties;
+import io.track4j.repository.datasourcemanager.Track4jDataSourceManager;
+import io.track4j.repository.ConnectionPinning;
+import io.track4j.repository.RepositoryWriteException;
 import io.track4j.repository.RequestLogRepositoryAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
-import java.sql.Timestamp;
-import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
-import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
-public class SqlRequestLogRepository implements RequestLogRepositoryAdapter {
+public class SqlRequestLogRepository implements RequestLogRepositoryAdapter, ConnectionPinning {
 
     private static final Logger logger = LoggerFactory.getLogger(SqlRequestLogRepository.class);
+    static final String TABLE_NAME = "request_logs";
+
     private final DataSource track4jDataSource;
+    private final ThreadLocal<PinnedConnection> pinnedConnection = new ThreadLocal<>();
+    private final PinnedConnection writerConnection;
+    private final ReentrantLock writerLock = new ReentrantLock();
+    private final ReentrantReadWriteLock payloadLock = new ReentrantReadWriteLock();
+    private volatile PayloadCompressor payloadCompressor;
+    private volatile PayloadDeduplicator payloadDeduplicator;
+    private final IdGenerator idGenerator;
+    private final Track4jProperties track4jProperties;
+    private volatile PartitionManager partitionManager;
 
-    private static final String INSERT_SQL = "INSERT INTO " +
-            "request_logs (id, trace_id, span_id, parent_span_id, operation_name, request_type,method, url," +
-            " request_headers, request_body, response_headers,response_body, status_code, start_time, end_time," +
-            " duration_ms,success, error_message, user_id, client_ip, tags, created_at) " +
-            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private volatile SqlDialect dialect = SqlDialect.GENERIC;
+    private volatile SqlBatchWriter batchWriter;
 
     public SqlRequestLogRepository(DataSource track4jDataSource) {
+        this(track4jDataSource, new Track4jProperties());
+    }
+
+    public SqlRequestLogRepository(DataSource track4jDataSource, Track4jProperties track4jProperties) {
         this.track4jDataSource = track4jDataSource;
+        this.track4jProperties = track4jProperties;
+        this.writerConnection = Track4jDataSourceManager.isSqliteHighThroughput(track4jProperties)
+                ? new PinnedConnection()
+                : null;
+        this.payloadCompressor = track4jProperties.getCompressionAlgorithm() != CompressionAlgorithm.NONE
+                ? new PayloadCompressor(track4jProperties.getCompressionAlgorithm(), track4jProperties.getCompressionThreshold())
+                : null;
+        this.payloadDeduplicator = track4jProperties.isPayloadDedupEnabled()
+                ? new PayloadDeduplicator(track4jProperties.getPayloadDedupCacheSize(), payloadCompressor)
+                : null;
+        this.idGenerator = IdGenerator.fromName(track4jProperties.getIdGenerator());
+        this.batchWriter = new InsertBatchWriter(SqlDialect.GENERIC, hasBinaryPayloadColumns(),
+                track4jProperties.getServiceName(), idGenerator, IdColumnType.STRING);
     }
 
     @Override
     public void initialize() {
         try (Connection conn = track4jDataSource.getConnection()) {
             String dbProductName = conn.getMetaData().getDatabaseProductName().toLowerCase();
+            dialect = SqlDialect.fromProductName(dbProductName);
+            bootstrapSchema(conn);
+            checkPayloadLayout(conn);
+            checkPayloadColumns(conn);
+            IdColumnType idColumnType = SchemaManager.detectIdColumnType(conn, dialect);
+            if (dialect == SqlDialect.POSTGRESQL && idColumnType == IdColumnType.UUID
+                    && PostgresCopyBatchWriter.isDriverAvailable()) {
+                batchWriter = new PostgresCopyBatchWriter(track4jProperties.getServiceName(), idGenerator);
+                logger.info("Track4j: Using COPY BINARY bulk load for request_logs");
+            } else {
+                InsertBatchWriter insertWriter = new InsertBatchWriter(dialect, hasBinaryPayloadColumns(),
+                        track4jProperties.getServiceName(), idGenerator, idColumnType);
+                batchWriter = insertWriter;
+                logger.info("Track4j: Using {} multi-row inserts of up to {} rows with {} ids",
+                        dialect, insertWriter.getRowsPerStatement(), idColumnType);
+            }
+            initializePartitioning(conn, idColumnType);
             logger.info("Track4j: Initialized SQL request_logs table {}", dbProductName);
         } catch (SQLException e) {
             logger.error("Track4j: Failed to initialize database", e);
@@ -41,13 +90,7 @@ public class SqlRequestLogRepository implements RequestLogRepositoryAdapter {
 
     @Override
     public void save(RequestLog requestLog) {
-        try (Connection conn = track4jDataSource.getConnection();
-             PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
-            setParameters(ps, requestLog);
-            ps.executeUpdate();
-        } catch (SQLException e) {
-            logger.error("Track4j: Failed to save request log", e);
-        }
+        saveAll(Collections.singletonList(requestLog));
     }
 
     @Override
@@ -55,33 +98,60 @@ public class SqlRequestLogRepository implements RequestLogRepositoryAdapter {
         if (requestLogs.isEmpty()) {
             return;
         }
+        if (writerConnection == null) {
+            saveBatch(requestLogs, pinnedConnection.get());
+            return;
+        }
+        writerLock.lock();
+        try {
+            saveBatch(requestLogs, writerConnection);
+        } finally {
+            writerLock.unlock();
+        }
+    }
+
+    private void saveBatch(List<RequestLog> requestLogs, PinnedConnection pinned) {
         Connection conn = null;
-        PreparedStatement ps = null;
 
         try {
 
-            conn = track4jDataSource.getConnection();
+            conn = pinned != null ? pinned.acquire(track4jDataSource) : track4jDataSource.getConnection();
             conn.setAutoCommit(false);
+            String table = partitionManager != null ? partitionManager.currentTable(conn) : TABLE_NAME;
 
-            ps = conn.prepareStatement(INSERT_SQL);
-
-            for (RequestLog log : requestLogs) {
-                setParameters(ps, log);
-                ps.addBatch();
+            PayloadDeduplicator deduplicator = payloadDeduplicator;
+            if (deduplicator == null) {
+                batchWriter.write(conn, table, requestLogs,
+                        payloadCompressor != null ? compressPayloads(requestLogs) : null);
+                conn.commit();
+                return;
+            }
+            if (partitionManager != null && partitionManager.takeDroppedPartitions()) {
+                collectPayloadOrphans(conn, deduplicator);
+            }
+            // retention may delete payloads between the hash lookup and the commit, so writers hold the read side
+            payloadLock.readLock().lock();
+            try {
+                PayloadDeduplicator.PayloadBatch payloads = deduplicator.store(conn, requestLogs, dialect);
+                batchWriter.write(conn, table, requestLogs, payloads.getRefs());
+                conn.commit();
+                deduplicator.markPersisted(payloads);
+            } finally {
+                payloadLock.readLock().unlock();
             }
-
-            ps.executeBatch();
-            conn.commit();
 
         } catch (SQLException e) {
-            logger.error("Track4j: Failed to save batch of request logs", e);
             if (conn != null) {
                 try {
                     conn.rollback();
                 } catch (SQLException rollbackEx) {
-                    logger.error("Track4j: Failed to rollback transaction", rollbackEx);
+                    e.addSuppressed(rollbackEx);
                 }
             }
+            if (pinned != null) {
+                pinned.invalidateIfBroken();
+            }
+            throw new RepositoryWriteException("Track4j: Failed to save batch of request logs", e);
         } finally {
             if (conn != null) {
                 try {
@@ -90,14 +160,7 @@ public class SqlRequestLogRepository implements RequestLogRepositoryAdapter {
                     logger.error("Track4j: Failed to restore autoCommit", e);
                 }
             }
-            if (ps != null) {
-                try {
-                    ps.close();
-                } catch (SQLException e) {
-                    logger.error("Track4j: Failed to close PreparedStatement", e);
-                }
-            }
-            if (conn != null) {
+            if (conn != null && pinned == null) {
                 try {
                     conn.close();
                 } catch (SQLException e) {
@@ -107,37 +170,174 @@ public class SqlRequestLogRepository implements RequestLogRepositoryAdapter {
         }
     }
 
-    @Override
-    public void close() {
+    private void bootstrapSchema(Connection conn) {
+        if (!track4jProperties.isSchemaBootstrap()) {
+            return;
+        }
+        boolean partitioned = track4jProperties.getPartitioning() != PartitionGranularity.NONE
+                && PartitionManager.isSupported(dialect);
+        SchemaManager manager = new SchemaManager(dialect, partitioned, payloadCompressor != null, payloadDeduplicator != null);
+        try {
+            manager.migrate(conn);
+        } catch (SQLException e) {
+            logger.error("Track4j: Failed to bootstrap the request_logs schema", e);
+        }
+    }
+
+    private void collectPayloadOrphans(Connection conn, PayloadDeduplicator deduplicator) throws SQLException {
+        payloadLock.writeLock().lock();
+        try {
+            int deleted = deduplicator.collectOrphans(conn, partitionManager.requestLogTables(conn));
+            conn.commit();
+            logger.info("Track4j: Deleted {} payloads no longer referenced by request logs", deleted);
+        } finally {
+            payloadLock.writeLock().unlock();
+        }
+    }
+
+    private void checkPayloadLayout(Connection conn) throws SQLException {
+        if (payloadDeduplicator == null) {
+            return;
+        }
+        SchemaManager schema = new SchemaManager(dialect, false, payloadCompressor != null, true);
+        if (schema.hasInlinePayloads(conn)) {
+            logger.warn("Track4j: {} already holds inline payloads, disabling payload deduplication " +
+                    "so hashes and content are not mixed in the same columns", TABLE_NAME);
+            payloadDeduplicator = null;
+        }
+    }
+
+    private void checkPayloadColumns(Connection conn) throws SQLException {
+        if (payloadCompressor == null) {
+            return;
+        }
+        if (payloadDeduplicator != null) {
+            if (!SchemaManager.hasBinaryColumns(conn, SchemaManager.PAYLOAD_TABLE, "content")) {
+                logger.warn("Track4j: {}.content is not a binary column, storing deduplicated payloads uncompressed",
+                        SchemaManager.PAYLOAD_TABLE);
+                payloadDeduplicator = new PayloadDeduplicator(track4jProperties.getPayloadDedupCacheSize(), null);
+            }
+            return;
+        }
+        if (!SchemaManager.hasBinaryColumns(conn, TABLE_NAME,
+                "request_headers", "request_body", "response_headers", "response_body")) {
+            logger.warn("Track4j: {} payload columns are not binary, disabling {} compression",
+                    TABLE_NAME, track4jProperties.getCompressionAlgorithm());
+            payloadCompressor = null;
+        }
+    }
+
+    private void initializePartitioning(Connection conn, IdColumnType idColumnType) {
+        PartitionGranularity granularity = track4jProperties.getPartitioning();
+        if (granularity == PartitionGranularity.NONE) {
+            return;
+        }
+        if (!PartitionManager.isSupported(dialect)) {
+            logger.warn("Track4j: Partitioning is not supported on {}, writing to a single table", dialect);
+            return;
+        }
+        SchemaManager partitionSchema = new SchemaManager(dialect, true, payloadCompressor != null, payloadDeduplicator != null);
+        PartitionManager manager = new PartitionManager(dialect, granularity,
+                track4jProperties.getRetention(), track4jProperties.getPartitionPrecreate(), partitionSchema, idColumnType);
         try {
-            track4jDataSource.getConnection().close();
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                manager.maintain(conn, System.currentTimeMillis());
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+            partitionManager = manager;
+            logger.info("Track4j: Managing {} partitions of request_logs", granularity);
         } catch (SQLException e) {
-            e.printStackTrace();
-        }
-    }
-
-    private void setParameters(PreparedStatement ps, RequestLog log) throws SQLException {
-        ps.setString(1, UUID.randomUUID().toString());
-        ps.setString(2, log.getTraceId());
-        ps.setString(3, log.getSpanId());
-        ps.setString(4, log.getParentSpanId());
-        ps.setString(5, log.getOperationName());
-        ps.setString(6, log.getRequestType() != null ? log.getRequestType().getValue() : null);
-        ps.setString(7, log.getMethod());
-        ps.setString(8, log.getUrl());
-        ps.setString(9, log.getRequestHeaders());
-        ps.setString(10, log.getRequestBody());
-        ps.setString(11, log.getResponseHeaders());
-        ps.setString(12, log.getResponseBody());
-        ps.setObject(13, log.getStatusCode());
-        ps.setTimestamp(14, log.getStartTime() != null ? Timestamp.valueOf(log.getStartTime()) : null);
-        ps.setTimestamp(15, log.getEndTime() != null ? Timestamp.valueOf(log.getEndTime()) : null);
-        ps.setObject(16, log.getDurationMs());
-        ps.setObject(17, log.getSuccess());
-        ps.setString(18, log.getErrorMessage());
-        ps.setString(19, log.getUserId());
-        ps.setString(20, log.getClientIp());
-        ps.setString(21, log.getTags());
-        ps.setTimestamp(22, Timestamp.valueOf(LocalDateTime.now()));
-    }
-}
\ No newline at end of file
+            logger.error("Track4j: Failed to set up request_logs partitions, writing to a single table", e);
+        }
+    }
+
+    private Object[] compressPayloads(List<RequestLog> requestLogs) {
+        Object[] values = new Object[requestLogs.size() * SqlBatchWriter.PAYLOADS_PER_ROW];
+        for (int i = 0; i < requestLogs.size(); i++) {
+            RequestLog log = requestLogs.get(i);
+            int base = i * SqlBatchWriter.PAYLOADS_PER_ROW;
+            values[base + SqlBatchWriter.REQUEST_HEADERS] = payloadCompressor.encode(log.getRequestHeadersUtf8());
+            values[base + SqlBatchWriter.REQUEST_BODY] = payloadCompressor.encode(log.getRequestBody());
+            values[base + SqlBatchWriter.RESPONSE_HEADERS] = payloadCompressor.encode(log.getResponseHeadersUtf8());
+            values[base + SqlBatchWriter.RESPONSE_BODY] = payloadCompressor.encode(log.getResponseBody());
+        }
+        return values;
+    }
+
+    private boolean hasBinaryPayloadColumns() {
+        return payloadCompressor != null && payloadDeduplicator == null;
+    }
+
+    public SqlDialect getDialect() {
+        return dialect;
+    }
+
+    @Override
+    public void pinConnection() {
+        if (writerConnection != null) {
+            return;
+        }
+        if (pinnedConnection.get() == null) {
+            pinnedConnection.set(new PinnedConnection());
+        }
+    }
+
+    @Override
+    public void releasePinnedConnection() {
+        PinnedConnection pinned = pinnedConnection.get();
+        if (pinned != null) {
+            pinned.close();
+            pinnedConnection.remove();
+        }
+    }
+
+    @Override
+    public void close() {
+        releasePinnedConnection();
+        if (writerConnection != null) {
+            writerLock.lock();
+            try {
+                writerConnection.close();
+            } finally {
+                writerLock.unlock();
+            }
+        }
+    }
+
+    private static final class PinnedConnection {
+        private Connection connection;
+
+        Connection acquire(DataSource dataSource) throws SQLException {
+            if (connection == null || connection.isClosed()) {
+                connection = dataSource.getConnection();
+            }
+            return connection;
+        }
+
+        void invalidateIfBroken() {
+            try {
+                if (connection != null && !connection.isValid(1)) {
+                    close();
+                }
+            } catch (SQLException e) {
+                close();
+            }
+        }
+
+        void close() {
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                logger.error("Track4j: Failed to close pinned Connection", e);
+            } finally {
+                connection = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.track4j.repository.fanout;
+
+import io.track4j.objects.RequestLog;
+import io.track4j.repository.RequestLogRepositoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class FanOutRequestLogRepository implements RequestLogRepositoryAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FanOutRequestLogRepository.class);
+
+    private final List<RepositorySink> sinks = new ArrayList<>();
+    private final int queueCapacity;
+    private final int batchSize;
+    private final long flushInterval;
+    private final long shutdownTimeout;
+    private boolean started;
+
+    public FanOutRequestLogRepository(int queueCapacity, int batchSize, long flushInterval, long shutdownTimeout) {
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    public FanOutRequestLogRepository addSink(String name, RequestLogRepositoryAdapter repository) {
+        if (started) {
+            throw new IllegalStateException("Sinks must be added before the repository is initialized");
+        }
+        sinks.add(new RepositorySink(name, repository, queueCapacity, batchSize, flushInterval));
+        return this;
+    }
+
+    @Override
+    public void initialize() {
+        for (RepositorySink sink : sinks) {
+            try {
+                sink.getRepository().initialize();
+            } catch (RuntimeException e) {
+                logger.error("Track4j: Failed to initialize sink {}", sink.getName(), e);
+            }
+            sink.start();
+        }
+        started = true;
+        logger.info("Track4j: Fanning request logs out to {} sinks", sinks.size());
+    }
+
+    @Override
+    public void save(RequestLog requestLog) {
+        for (int i = 0; i < sinks.size(); i++) {
+            sinks.get(i).offer(requestLog);
+        }
+    }
+
+    @Override
+    public void saveAll(List<RequestLog> requestLogs) {
+        for (int i = 0; i < sinks.size(); i++) {
+            RepositorySink sink = sinks.get(i);
+            for (int j = 0; j < requestLogs.size(); j++) {
+                sink.offer(requestLogs.get(j));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeout);
+        for (RepositorySink sink : sinks) {
+            sink.stop();
+        }
+        for (RepositorySink sink : sinks) {
+            try {
+                if (!sink.awaitTermination(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()))) {
+                    logger.warn("Track4j: Sink {} did not drain before shutdown, {} request logs left",
+                            sink.getName(), sink.getQueueDepth());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                sink.getRepository().close();
+            } catch (RuntimeException e) {
+                logger.error("Track4j: Failed to close sink {}", sink.getName(), e);
+            }
+        }
+    }
+
+    public List<RepositorySink> getSinks() {
+        return Collections.unmodifiableList(sinks);
+    }
+}
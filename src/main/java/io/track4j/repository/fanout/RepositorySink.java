@@ -0,0 +1,144 @@
+package io.track4j.repository.fanout;
+
+import io.track4j.objects.RequestLog;
+import io.track4j.properties.OverflowPolicy;
+import io.track4j.repository.ConnectionPinning;
+import io.track4j.repository.RequestLogRepositoryAdapter;
+import io.track4j.service.buffer.DropCounters;
+import io.track4j.service.buffer.RequestLogBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public final class RepositorySink implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositorySink.class);
+
+    private final String name;
+    private final RequestLogRepositoryAdapter repository;
+    private final RequestLogBuffer buffer;
+    private final DropCounters dropCounters = new DropCounters();
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final List<RequestLog> batch;
+    private final AtomicBoolean signalled = new AtomicBoolean(false);
+    private final LongAdder writtenRows = new LongAdder();
+    private final LongAdder failedRows = new LongAdder();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    RepositorySink(String name, RequestLogRepositoryAdapter repository, int capacity, int batchSize, long flushIntervalMs) {
+        this.name = name;
+        this.repository = repository;
+        this.buffer = new RequestLogBuffer(capacity, OverflowPolicy.DROP_NEWEST, 0, dropCounters, this::signal);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        this.batch = new ArrayList<>(this.batchSize);
+        this.thread = new Thread(this, "track4j-sink-" + name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void offer(RequestLog requestLog) {
+        buffer.offer(requestLog);
+        if (buffer.size() >= batchSize) {
+            signal();
+        }
+    }
+
+    void signal() {
+        if (!signalled.get() && signalled.compareAndSet(false, true)) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    boolean awaitTermination(long timeoutMs) throws InterruptedException {
+        thread.join(Math.max(1, timeoutMs));
+        return !thread.isAlive();
+    }
+
+    RequestLogRepositoryAdapter getRepository() {
+        return repository;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    public int getQueueCapacity() {
+        return buffer.capacity();
+    }
+
+    public long getDroppedCount() {
+        return dropCounters.total();
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.sum();
+    }
+
+    public long getFailedRows() {
+        return failedRows.sum();
+    }
+
+    @Override
+    public void run() {
+        ConnectionPinning connectionPinning = repository instanceof ConnectionPinning ? (ConnectionPinning) repository : null;
+        if (connectionPinning != null) {
+            connectionPinning.pinConnection();
+        }
+        try {
+            while (running) {
+                signalled.set(false);
+                if (drainAndWrite() < batchSize && running) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+            }
+            while (drainAndWrite() > 0) {
+                // drain what is left before the thread exits
+            }
+        } finally {
+            if (connectionPinning != null) {
+                connectionPinning.releasePinnedConnection();
+            }
+        }
+    }
+
+    private int drainAndWrite() {
+        int drained = buffer.drainTo(batch, batchSize);
+        if (drained == 0) {
+            return 0;
+        }
+        try {
+            repository.saveAll(batch);
+            writtenRows.add(drained);
+        } catch (Exception e) {
+            failedRows.add(drained);
+            logger.warn("Track4j: Sink {} failed to save {} request logs: {}", name, drained, e.getMessage());
+        } finally {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.set(i, null);
+            }
+            batch.clear();
+        }
+        return drained;
+    }
+}
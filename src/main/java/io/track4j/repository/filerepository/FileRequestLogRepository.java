@@ -0,0 +1,270 @@
+package io.track4j.repository.filerepository;
+
+import io.track4j.helper.ByteArrayBuilder;
+import io.track4j.helper.RequestLogCodec;
+import io.track4j.objects.RequestLog;
+import io.track4j.properties.Track4jProperties;
+import io.track4j.repository.RepositoryWriteException;
+import io.track4j.repository.RequestLogRepositoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+public class FileRequestLogRepository implements RequestLogRepositoryAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileRequestLogRepository.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final long RETENTION_CHECK_INTERVAL = 60_000L;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long retention;
+    private final TreeMap<Long, LogSegment> segments = new TreeMap<>();
+    private final ByteArrayBuilder frameBuffer = new ByteArrayBuilder();
+    private final CRC32 crc = new CRC32();
+    private final ZoneRules zoneRules = ZoneId.systemDefault().getRules();
+
+    private LogSegment activeSegment;
+    private long lastRetentionCheck;
+    private boolean closed;
+
+    public FileRequestLogRepository(Track4jProperties track4jProperties) {
+        this(Paths.get(track4jProperties.getFileDirectory()), track4jProperties.getFileSegmentSize(),
+                track4jProperties.getRetention());
+    }
+
+    public FileRequestLogRepository(Path directory, int segmentSize, long retention) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.retention = retention;
+    }
+
+    @Override
+    public synchronized void initialize() {
+        try {
+            Files.createDirectories(directory);
+            List<Long> ids = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+                for (Path path : stream) {
+                    String name = path.getFileName().toString();
+                    try {
+                        ids.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        logger.warn("Track4j: Ignoring unexpected log segment file {}", path);
+                    }
+                }
+            }
+            Collections.sort(ids);
+            for (int i = 0; i < ids.size(); i++) {
+                long id = ids.get(i);
+                boolean active = i == ids.size() - 1;
+                segments.put(id, LogSegment.open(id, segmentPath(id), indexPath(id), segmentSize, active));
+            }
+            if (segments.isEmpty()) {
+                activeSegment = createSegment(1);
+            } else {
+                activeSegment = segments.lastEntry().getValue();
+            }
+            enforceRetention(System.currentTimeMillis());
+            logger.info("Track4j: Initialized file storage in {} with {} segments", directory, segments.size());
+        } catch (IOException e) {
+            logger.error("Track4j: Failed to initialize file storage in {}", directory, e);
+        }
+    }
+
+    @Override
+    public void save(RequestLog requestLog) {
+        saveAll(Collections.singletonList(requestLog));
+    }
+
+    @Override
+    public synchronized void saveAll(List<RequestLog> requestLogs) {
+        if (requestLogs.isEmpty()) {
+            return;
+        }
+        if (closed || activeSegment == null) {
+            throw new RepositoryWriteException("Track4j: File storage in " + directory + " is not open");
+        }
+        try {
+            for (int i = 0; i < requestLogs.size(); i++) {
+                RequestLog log = requestLogs.get(i);
+                frameBuffer.reset();
+                frameBuffer.setLength(LogSegment.FRAME_HEADER_SIZE);
+                RequestLogCodec.encode(log, frameBuffer);
+
+                int payloadSize = frameBuffer.length() - LogSegment.FRAME_HEADER_SIZE;
+                if (payloadSize > activeSegment.maxPayloadSize()) {
+                    logger.warn("Track4j: Request log of {} bytes exceeds file segment size, dropping it", payloadSize);
+                    continue;
+                }
+                if (!activeSegment.hasRoomFor(payloadSize)) {
+                    rotate();
+                }
+                activeSegment.append(frameBuffer, crc, log.getTraceId(), timestampOf(log));
+            }
+        } catch (IOException e) {
+            throw new RepositoryWriteException("Track4j: Failed to append request logs to file storage", e);
+        }
+
+        long now = System.currentTimeMillis();
+        if (retention > 0 && now - lastRetentionCheck >= RETENTION_CHECK_INTERVAL) {
+            enforceRetention(now);
+        }
+    }
+
+    public List<RequestLog> findByTraceId(String traceId) {
+        byte[] traceIdUtf8 = traceId != null ? traceId.getBytes(StandardCharsets.UTF_8) : null;
+        List<RequestLog> result = new ArrayList<>();
+        ByteArrayBuilder readBuffer = new ByteArrayBuilder();
+        for (LogSegment segment : sealedSegments()) {
+            try {
+                segment.findByTraceId(traceId, traceIdUtf8, readBuffer, result);
+            } catch (NoSuchFileException e) {
+                // removed by retention while we were searching
+            } catch (IOException e) {
+                logger.warn("Track4j: Failed to search log segment {}", segment.getId(), e);
+            }
+        }
+        synchronized (this) {
+            if (activeSegment != null && !closed) {
+                try {
+                    activeSegment.findByTraceId(traceId, traceIdUtf8, readBuffer, result);
+                } catch (IOException e) {
+                    logger.warn("Track4j: Failed to search active log segment", e);
+                }
+            }
+        }
+        return result;
+    }
+
+    public List<RequestLog> findByTimeRange(LocalDateTime from, LocalDateTime to, int maxResults) {
+        long fromMillis = toEpochMillis(from);
+        long toMillis = toEpochMillis(to);
+        List<RequestLog> result = new ArrayList<>();
+        ByteArrayBuilder readBuffer = new ByteArrayBuilder();
+        for (LogSegment segment : sealedSegments()) {
+            try {
+                segment.findByTimeRange(fromMillis, toMillis, readBuffer, result, maxResults - result.size());
+            } catch (NoSuchFileException e) {
+                // removed by retention while we were searching
+            } catch (IOException e) {
+                logger.warn("Track4j: Failed to search log segment {}", segment.getId(), e);
+            }
+        }
+        synchronized (this) {
+            if (activeSegment != null && !closed) {
+                try {
+                    activeSegment.findByTimeRange(fromMillis, toMillis, readBuffer, result, maxResults - result.size());
+                } catch (IOException e) {
+                    logger.warn("Track4j: Failed to search active log segment", e);
+                }
+            }
+        }
+        return result;
+    }
+
+    public synchronized int deleteOlderThan(long cutoffMillis) {
+        int deleted = 0;
+        while (segments.size() > 1) {
+            LogSegment oldest = segments.firstEntry().getValue();
+            if (oldest == activeSegment || oldest.getMaxTimestamp() >= cutoffMillis) {
+                break;
+            }
+            segments.pollFirstEntry();
+            oldest.delete();
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public synchronized long getRecordCount() {
+        long count = 0;
+        for (LogSegment segment : segments.values()) {
+            count += segment.getRecordCount();
+        }
+        return count;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed || activeSegment == null) {
+            closed = true;
+            return;
+        }
+        activeSegment.force();
+        closed = true;
+    }
+
+    private synchronized List<LogSegment> sealedSegments() {
+        List<LogSegment> sealed = new ArrayList<>(segments.size());
+        for (LogSegment segment : segments.values()) {
+            if (segment.isSealed()) {
+                sealed.add(segment);
+            }
+        }
+        return sealed;
+    }
+
+    private void rotate() throws IOException {
+        activeSegment.seal();
+        activeSegment = createSegment(activeSegment.getId() + 1);
+        if (retention > 0) {
+            enforceRetention(System.currentTimeMillis());
+        }
+    }
+
+    private void enforceRetention(long now) {
+        lastRetentionCheck = now;
+        if (retention <= 0) {
+            return;
+        }
+        int deleted = deleteOlderThan(now - retention);
+        if (deleted > 0) {
+            logger.info("Track4j: Deleted {} log segments older than the retention window", deleted);
+        }
+    }
+
+    private LogSegment createSegment(long id) throws IOException {
+        LogSegment segment = LogSegment.create(id, segmentPath(id), indexPath(id), segmentSize);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private long timestampOf(RequestLog log) {
+        return log.getStartTime() != null ? toEpochMillis(log.getStartTime()) : System.currentTimeMillis();
+    }
+
+    private long toEpochMillis(LocalDateTime value) {
+        return value.toInstant(zoneRules.getOffset(value)).toEpochMilli();
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private Path indexPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, INDEX_SUFFIX));
+    }
+}
@@ -0,0 +1,337 @@
+package io.track4j.repository.filerepository;
+
+import io.track4j.helper.ByteArrayBuilder;
+import io.track4j.helper.RequestLogCodec;
+import io.track4j.objects.RequestLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+final class LogSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSegment.class);
+
+    static final int FRAME_HEADER_SIZE = 16;
+    private static final int INDEX_INTERVAL = 64;
+    private static final int INDEX_MAGIC = 0x54344A49;
+    private static final int BLOOM_BITS_PER_ENTRY = 10;
+    private static final int AVERAGE_RECORD_SIZE = 512;
+
+    private final long id;
+    private final Path path;
+    private final Path indexPath;
+    private final int size;
+
+    private MappedByteBuffer buffer;
+    private TraceBloomFilter bloomFilter;
+    private long[] indexOffsets = new long[16];
+    private long[] indexTimestamps = new long[16];
+    private int indexSize;
+    private int writeOffset;
+    private long recordCount;
+    private long minTimestamp = Long.MAX_VALUE;
+    private long maxTimestamp = Long.MIN_VALUE;
+    private boolean sealed;
+
+    private LogSegment(long id, Path path, Path indexPath, int size) {
+        this.id = id;
+        this.path = path;
+        this.indexPath = indexPath;
+        this.size = size;
+    }
+
+    static LogSegment create(long id, Path path, Path indexPath, int size) throws IOException {
+        LogSegment segment = new LogSegment(id, path, indexPath, size);
+        segment.buffer = map(path, size);
+        segment.bloomFilter = new TraceBloomFilter(size / AVERAGE_RECORD_SIZE, BLOOM_BITS_PER_ENTRY);
+        return segment;
+    }
+
+    static LogSegment open(long id, Path path, Path indexPath, int size, boolean active) throws IOException {
+        LogSegment segment = new LogSegment(id, path, indexPath, size);
+        if (!active && segment.loadIndex()) {
+            segment.sealed = true;
+            return segment;
+        }
+        segment.buffer = map(path, size);
+        segment.bloomFilter = new TraceBloomFilter(size / AVERAGE_RECORD_SIZE, BLOOM_BITS_PER_ENTRY);
+        segment.rebuild();
+        if (!active) {
+            segment.seal();
+        }
+        return segment;
+    }
+
+    boolean hasRoomFor(int payloadSize) {
+        return writeOffset + FRAME_HEADER_SIZE + payloadSize + Integer.BYTES <= size;
+    }
+
+    int maxPayloadSize() {
+        return size - FRAME_HEADER_SIZE - Integer.BYTES;
+    }
+
+    void append(ByteArrayBuilder frame, CRC32 crc, String traceId, long timestamp) {
+        int payloadSize = frame.length() - FRAME_HEADER_SIZE;
+        crc.reset();
+        crc.update(frame.array(), FRAME_HEADER_SIZE, payloadSize);
+        frame.putInt(4, (int) crc.getValue());
+
+        buffer.position(writeOffset + Integer.BYTES);
+        buffer.put(frame.array(), Integer.BYTES, frame.length() - Integer.BYTES);
+        buffer.putLong(writeOffset + 8, timestamp);
+        // the length is written last so a torn frame is never seen as complete
+        buffer.putInt(writeOffset, payloadSize);
+        track(writeOffset, traceId, timestamp);
+        writeOffset += FRAME_HEADER_SIZE + payloadSize;
+    }
+
+    void seal() throws IOException {
+        if (sealed) {
+            return;
+        }
+        buffer.force();
+        writeIndex();
+        sealed = true;
+        buffer = null;
+    }
+
+    void force() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    boolean mightContain(String traceId) {
+        return recordCount > 0 && bloomFilter.mightContain(traceId);
+    }
+
+    boolean overlaps(long from, long to) {
+        return recordCount > 0 && maxTimestamp >= from && minTimestamp <= to;
+    }
+
+    int findByTraceId(String traceId, byte[] traceIdUtf8, ByteArrayBuilder readBuffer, List<RequestLog> target)
+            throws IOException {
+        if (!mightContain(traceId)) {
+            return 0;
+        }
+        ByteBuffer data = readView();
+        int found = 0;
+        int offset = 0;
+        int limit = writeOffset;
+        while (offset + FRAME_HEADER_SIZE <= limit) {
+            int payloadSize = data.getInt(offset);
+            if (payloadSize <= 0 || offset + FRAME_HEADER_SIZE + payloadSize > limit) {
+                break;
+            }
+            readPayload(data, offset, payloadSize, readBuffer);
+            if (RequestLogCodec.matchesTraceId(readBuffer.array(), 0, payloadSize, traceIdUtf8)) {
+                target.add(RequestLogCodec.decode(readBuffer.array(), 0, payloadSize));
+                found++;
+            }
+            offset += FRAME_HEADER_SIZE + payloadSize;
+        }
+        return found;
+    }
+
+    int findByTimeRange(long from, long to, ByteArrayBuilder readBuffer, List<RequestLog> target, int maxResults)
+            throws IOException {
+        if (!overlaps(from, to) || maxResults <= 0) {
+            return 0;
+        }
+        ByteBuffer data = readView();
+        int found = 0;
+        int offset = startOffsetFor(from);
+        int limit = writeOffset;
+        while (offset + FRAME_HEADER_SIZE <= limit && found < maxResults) {
+            int payloadSize = data.getInt(offset);
+            if (payloadSize <= 0 || offset + FRAME_HEADER_SIZE + payloadSize > limit) {
+                break;
+            }
+            long timestamp = data.getLong(offset + 8);
+            if (timestamp >= from && timestamp <= to) {
+                readPayload(data, offset, payloadSize, readBuffer);
+                target.add(RequestLogCodec.decode(readBuffer.array(), 0, payloadSize));
+                found++;
+            }
+            offset += FRAME_HEADER_SIZE + payloadSize;
+        }
+        return found;
+    }
+
+    void delete() {
+        buffer = null;
+        try {
+            Files.deleteIfExists(indexPath);
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Track4j: Failed to delete log segment {}", path, e);
+        }
+    }
+
+    long getId() {
+        return id;
+    }
+
+    long getRecordCount() {
+        return recordCount;
+    }
+
+    long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    boolean isSealed() {
+        return sealed;
+    }
+
+    private int startOffsetFor(long from) {
+        // each index entry holds the newest timestamp written before its block, so the entries are ascending
+        int low = 0;
+        int high = indexSize - 1;
+        int start = 0;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (indexTimestamps[mid] < from) {
+                start = (int) indexOffsets[mid];
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return start;
+    }
+
+    private void track(int offset, String traceId, long timestamp) {
+        if (recordCount % INDEX_INTERVAL == 0) {
+            if (indexSize == indexOffsets.length) {
+                indexOffsets = Arrays.copyOf(indexOffsets, indexSize << 1);
+                indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize << 1);
+            }
+            indexOffsets[indexSize] = offset;
+            indexTimestamps[indexSize] = maxTimestamp;
+            indexSize++;
+        }
+        bloomFilter.add(traceId);
+        recordCount++;
+        minTimestamp = Math.min(minTimestamp, timestamp);
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+    }
+
+    private void rebuild() {
+        ByteArrayBuilder readBuffer = new ByteArrayBuilder();
+        CRC32 crc = new CRC32();
+        int offset = 0;
+        while (offset + FRAME_HEADER_SIZE <= size) {
+            int payloadSize = buffer.getInt(offset);
+            if (payloadSize <= 0 || offset + FRAME_HEADER_SIZE + payloadSize > size) {
+                break;
+            }
+            readPayload(buffer, offset, payloadSize, readBuffer);
+            crc.reset();
+            crc.update(readBuffer.array(), 0, payloadSize);
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            RequestLog log = RequestLogCodec.decode(readBuffer.array(), 0, payloadSize);
+            track(offset, log.getTraceId(), buffer.getLong(offset + 8));
+            offset += FRAME_HEADER_SIZE + payloadSize;
+        }
+
+        if (offset + Integer.BYTES <= size && buffer.getInt(offset) != 0) {
+            logger.warn("Track4j: Truncating torn log segment tail of {} at offset {}", path, offset);
+            for (int i = offset; i < size; i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.force();
+        }
+        writeOffset = offset;
+    }
+
+    private ByteBuffer readView() throws IOException {
+        if (buffer != null) {
+            return buffer.duplicate();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), size));
+        }
+    }
+
+    private static void readPayload(ByteBuffer data, int offset, int payloadSize, ByteArrayBuilder readBuffer) {
+        readBuffer.setLength(payloadSize);
+        ByteBuffer view = data.duplicate();
+        view.position(offset + FRAME_HEADER_SIZE);
+        view.get(readBuffer.array(), 0, payloadSize);
+    }
+
+    private void writeIndex() throws IOException {
+        int length = Integer.BYTES * 3 + Long.BYTES * 3 + indexSize * Long.BYTES * 2 + bloomFilter.serializedSize();
+        ByteBuffer data = ByteBuffer.allocate(length);
+        data.putInt(INDEX_MAGIC).putInt(writeOffset).putLong(recordCount)
+                .putLong(minTimestamp).putLong(maxTimestamp).putInt(indexSize);
+        for (int i = 0; i < indexSize; i++) {
+            data.putLong(indexOffsets[i]).putLong(indexTimestamps[i]);
+        }
+        bloomFilter.writeTo(data);
+        data.flip();
+
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private boolean loadIndex() {
+        if (!Files.exists(indexPath)) {
+            return false;
+        }
+        try {
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+            if (data.getInt() != INDEX_MAGIC) {
+                return false;
+            }
+            writeOffset = data.getInt();
+            recordCount = data.getLong();
+            minTimestamp = data.getLong();
+            maxTimestamp = data.getLong();
+            indexSize = data.getInt();
+            indexOffsets = new long[Math.max(1, indexSize)];
+            indexTimestamps = new long[Math.max(1, indexSize)];
+            for (int i = 0; i < indexSize; i++) {
+                indexOffsets[i] = data.getLong();
+                indexTimestamps[i] = data.getLong();
+            }
+            bloomFilter = TraceBloomFilter.readFrom(data);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Track4j: Unreadable index for log segment {}, rebuilding it", path, e);
+            indexSize = 0;
+            recordCount = 0;
+            minTimestamp = Long.MAX_VALUE;
+            maxTimestamp = Long.MIN_VALUE;
+            return false;
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, int size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+}
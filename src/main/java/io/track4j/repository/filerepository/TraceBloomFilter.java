@@ -0,0 +1,81 @@
+package io.track4j.repository.filerepository;
+
+import java.nio.ByteBuffer;
+
+final class TraceBloomFilter {
+
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final long[] words;
+    private final int bitCount;
+
+    TraceBloomFilter(int expectedEntries, int bitsPerEntry) {
+        int bits = Math.max(1024, expectedEntries * bitsPerEntry);
+        this.words = new long[(bits + 63) >>> 6];
+        this.bitCount = words.length << 6;
+    }
+
+    private TraceBloomFilter(long[] words) {
+        this.words = words;
+        this.bitCount = words.length << 6;
+    }
+
+    void add(String traceId) {
+        long hash = hash(traceId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            words[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String traceId) {
+        long hash = hash(traceId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= HASH_FUNCTIONS; i++) {
+            int bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    int serializedSize() {
+        return Integer.BYTES + words.length * Long.BYTES;
+    }
+
+    void writeTo(ByteBuffer out) {
+        out.putInt(words.length);
+        for (long word : words) {
+            out.putLong(word);
+        }
+    }
+
+    static TraceBloomFilter readFrom(ByteBuffer in) {
+        long[] words = new long[in.getInt()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = in.getLong();
+        }
+        return new TraceBloomFilter(words);
+    }
+
+    private static long hash(String value) {
+        if (value == null) {
+            return 0x9E3779B97F4A7C15L;
+        }
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
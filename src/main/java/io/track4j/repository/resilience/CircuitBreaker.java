@@ -0,0 +1,69 @@
+package io.track4j.repository.resilience;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class CircuitBreaker {
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final AtomicReference<CircuitBreakerState> state = new AtomicReference<>(CircuitBreakerState.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final LongAdder openTransitions = new LongAdder();
+    private volatile long openedAt;
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+    }
+
+    public boolean allowRequest() {
+        switch (state.get()) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                return System.nanoTime() - openedAt >= openDurationNanos
+                        && state.compareAndSet(CircuitBreakerState.OPEN, CircuitBreakerState.HALF_OPEN);
+            case HALF_OPEN:
+            default:
+                return false;
+        }
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        state.set(CircuitBreakerState.CLOSED);
+    }
+
+    public void recordFailure() {
+        if (state.get() == CircuitBreakerState.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold
+                && state.compareAndSet(CircuitBreakerState.CLOSED, CircuitBreakerState.OPEN)) {
+            openedAt = System.nanoTime();
+            openTransitions.increment();
+        }
+    }
+
+    public CircuitBreakerState getState() {
+        return state.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    public long getOpenTransitions() {
+        return openTransitions.sum();
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        state.set(CircuitBreakerState.OPEN);
+        openTransitions.increment();
+    }
+}
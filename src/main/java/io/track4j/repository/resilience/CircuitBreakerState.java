@@ -0,0 +1,7 @@
+package io.track4j.repository.resilience;
+
+public enum CircuitBreakerState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
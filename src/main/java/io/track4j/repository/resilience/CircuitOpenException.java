@@ -0,0 +1,17 @@
+package io.track4j.repository.resilience;
+
+import io.track4j.repository.RepositoryWriteException;
+
+public class CircuitOpenException extends RepositoryWriteException {
+
+    private static final long serialVersionUID = 1L;
+
+    public CircuitOpenException() {
+        super("Track4j: Repository circuit breaker is open");
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
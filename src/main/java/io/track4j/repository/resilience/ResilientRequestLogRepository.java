@@ -0,0 +1,131 @@
+package io.track4j.repository.resilience;
+
+import io.track4j.objects.RequestLog;
+import io.track4j.repository.ConnectionPinning;
+import io.track4j.repository.RepositoryWriteException;
+import io.track4j.repository.RequestLogRepositoryAdapter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ResilientRequestLogRepository implements RequestLogRepositoryAdapter, ConnectionPinning {
+
+    private final RequestLogRepositoryAdapter delegate;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreaker circuitBreaker;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder failedWrites = new LongAdder();
+    private final LongAdder rejectedWrites = new LongAdder();
+
+    public ResilientRequestLogRepository(RequestLogRepositoryAdapter delegate,
+                                         RetryPolicy retryPolicy,
+                                         CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void save(RequestLog requestLog) {
+        saveAll(Collections.singletonList(requestLog));
+    }
+
+    @Override
+    public void saveAll(List<RequestLog> requestLogs) {
+        if (requestLogs.isEmpty()) {
+            return;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            rejectedWrites.increment();
+            throw new CircuitOpenException();
+        }
+
+        RuntimeException lastFailure = null;
+        for (int attempt = 0; attempt < retryPolicy.getMaxAttempts(); attempt++) {
+            if (attempt > 0) {
+                retries.increment();
+                if (!backoff(attempt - 1)) {
+                    break;
+                }
+            }
+            try {
+                delegate.saveAll(requestLogs);
+                circuitBreaker.recordSuccess();
+                return;
+            } catch (RuntimeException e) {
+                lastFailure = e;
+            } catch (Error e) {
+                circuitBreaker.recordFailure();
+                failedWrites.increment();
+                throw e;
+            }
+        }
+
+        circuitBreaker.recordFailure();
+        failedWrites.increment();
+        throw new RepositoryWriteException("Track4j: Failed to save " + requestLogs.size() + " request logs", lastFailure);
+    }
+
+    @Override
+    public void initialize() {
+        delegate.initialize();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public void pinConnection() {
+        if (delegate instanceof ConnectionPinning) {
+            ((ConnectionPinning) delegate).pinConnection();
+        }
+    }
+
+    @Override
+    public void releasePinnedConnection() {
+        if (delegate instanceof ConnectionPinning) {
+            ((ConnectionPinning) delegate).releasePinnedConnection();
+        }
+    }
+
+    public RequestLogRepositoryAdapter getDelegate() {
+        return delegate;
+    }
+
+    public CircuitBreakerState getCircuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    public long getFailedWriteCount() {
+        return failedWrites.sum();
+    }
+
+    public long getRejectedWriteCount() {
+        return rejectedWrites.sum();
+    }
+
+    private boolean backoff(int retry) {
+        long delay = retryPolicy.backoffMillis(retry);
+        if (delay == 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.track4j.repository.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public RetryPolicy(int maxAttempts, long initialBackoffMs, long maxBackoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = Math.max(0, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long backoffMillis(int retry) {
+        long ceiling = initialBackoffMs << Math.min(retry, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffMs) {
+            ceiling = maxBackoffMs;
+        }
+        return ceiling == 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+}
@@ -0,0 +1,91 @@
+package io.track4j.service;
+
+import io.track4j.properties.Track4jProperties;
+
+import java.util.concurrent.TimeUnit;
+
+public final class AdaptiveBatchController {
+
+    private static final double EWMA_WEIGHT = 0.2;
+    private static final double LATENCY_RISE_FACTOR = 1.5;
+
+    private final boolean enabled;
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minFlushIntervalMs;
+    private final long maxFlushIntervalMs;
+
+    private volatile int batchSize;
+    private volatile long flushIntervalMs;
+    private double ewmaNanosPerRow;
+    private double ewmaBatchNanos;
+
+    public AdaptiveBatchController(Track4jProperties track4jProperties) {
+        this.enabled = track4jProperties.isAdaptiveBatchingEnabled();
+        if (enabled) {
+            this.minBatchSize = Math.max(1, track4jProperties.getAdaptiveMinBatchSize());
+            this.maxBatchSize = Math.max(minBatchSize, track4jProperties.getAdaptiveMaxBatchSize());
+            this.minFlushIntervalMs = Math.max(1, track4jProperties.getAdaptiveMinFlushInterval());
+            this.maxFlushIntervalMs = Math.max(minFlushIntervalMs, track4jProperties.getFlushInterval());
+        } else {
+            this.minBatchSize = track4jProperties.getBatchSize();
+            this.maxBatchSize = track4jProperties.getBatchSize();
+            this.minFlushIntervalMs = track4jProperties.getFlushInterval();
+            this.maxFlushIntervalMs = track4jProperties.getFlushInterval();
+        }
+        this.batchSize = Math.min(maxBatchSize, Math.max(minBatchSize, track4jProperties.getBatchSize()));
+        this.flushIntervalMs = maxFlushIntervalMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+
+    public int getMinBatchSize() {
+        return minBatchSize;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public synchronized void recordWrite(int rows, long elapsedNanos) {
+        if (!enabled || rows <= 0) {
+            return;
+        }
+        double nanosPerRow = (double) elapsedNanos / rows;
+        if (ewmaBatchNanos == 0) {
+            ewmaNanosPerRow = nanosPerRow;
+            ewmaBatchNanos = elapsedNanos;
+            return;
+        }
+
+        int current = batchSize;
+        if (elapsedNanos > ewmaBatchNanos * LATENCY_RISE_FACTOR) {
+            batchSize = Math.max(minBatchSize, current - (current >> 2));
+        } else if (rows >= current && nanosPerRow < ewmaNanosPerRow) {
+            batchSize = Math.min(maxBatchSize, current + Math.max(1, current >> 2));
+        }
+
+        ewmaNanosPerRow += EWMA_WEIGHT * (nanosPerRow - ewmaNanosPerRow);
+        ewmaBatchNanos += EWMA_WEIGHT * (elapsedNanos - ewmaBatchNanos);
+    }
+
+    public long flushIntervalNanos(int queueDepth, int capacity) {
+        long interval = maxFlushIntervalMs;
+        if (enabled && capacity > 0) {
+            double fill = Math.min(1.0, (double) queueDepth * 2 / capacity);
+            interval = maxFlushIntervalMs - (long) ((maxFlushIntervalMs - minFlushIntervalMs) * fill);
+            flushIntervalMs = interval;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(interval);
+    }
+}
@@ -1,121 +1,295 @@
 package io.track4j.service;
 
+import io.track4j.helper.SerializationService;
+import io.track4j.metrics.Track4jMetrics;
 import io.track4j.objects.RequestLog;
 import io.track4j.properties.Track4jProperties;
+import io.track4j.properties.StorageType;
+import io.track4j.repository.ConnectionPinning;
+import io.track4j.repository.datasourcemanager.Track4jDataSourceManager;
 import io.track4j.repository.RequestLogRepositoryAdapter;
+import io.track4j.repository.resilience.CircuitOpenException;
+import io.track4j.service.buffer.DropCounters;
+import io.track4j.service.buffer.DropReason;
+import io.track4j.service.buffer.RequestLogBuffer;
+import io.track4j.service.journal.SpillJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 public class RequestLogService {
 
     private static final Logger logger = LoggerFactory.getLogger(RequestLogService.class);
+    private static final int MAX_SPILL_DRAIN_ATTEMPTS = 1000;
 
     private final Track4jProperties track4jProperties;
     private final RequestLogRepositoryAdapter repository;
-    private final BlockingQueue<RequestLog> logBuffer;
-    private final BlockingQueue<RequestLog> rescueBuffer;
+    private final SerializationService serializationService;
+    private final DropCounters dropCounters = new DropCounters();
+    private final AdaptiveBatchController batchController;
+    private final Track4jMetrics metrics;
+    private final WriterShard[] shards;
+    private final SpillJournal journal;
+    private final int spillWatermark;
     private final ScheduledExecutorService scheduler;
-    private final ExecutorService worker;
-    private final ThreadLocal<List<RequestLog>> requestLogsListPool;
+    private final List<RequestLog> replayBatch;
+    private volatile boolean accepting = true;
 
     public RequestLogService(RequestLogRepositoryAdapter adapter, Track4jProperties track4jProperties) {
+        this(adapter, track4jProperties, new SerializationService());
+    }
+
+    public RequestLogService(RequestLogRepositoryAdapter adapter,
+                             Track4jProperties track4jProperties,
+                             SerializationService serializationService) {
         this.track4jProperties = track4jProperties;
         this.repository = adapter;
-        this.logBuffer = new ArrayBlockingQueue<>(track4jProperties.getBatchSize());
-        this.rescueBuffer = new ArrayBlockingQueue<>(track4jProperties.getBatchSize());
-        this.scheduler = Executors.newScheduledThreadPool(1);
-        this.worker = Executors.newFixedThreadPool(2);
-        this.requestLogsListPool = ThreadLocal.withInitial(() -> new ArrayList<>(track4jProperties.getBatchSize()));
+        this.serializationService = serializationService;
+        this.metrics = new Track4jMetrics(this::getBufferedCount, dropCounters);
+        this.journal = track4jProperties.isJournalEnabled() ? openJournal(track4jProperties) : null;
+        this.batchController = new AdaptiveBatchController(track4jProperties);
+        this.shards = createShards(track4jProperties);
+        this.spillWatermark = shards[0].getBuffer().capacity() - (shards[0].getBuffer().capacity() >> 2);
+        this.replayBatch = new ArrayList<>(batchController.getBatchSize());
         repository.initialize();
-        scheduler.scheduleWithFixedDelay(
-                this::processBuffer,
-                0,
-                track4jProperties.getFlushInterval(),
-                TimeUnit.MILLISECONDS
-        );
+        for (WriterShard shard : shards) {
+            shard.start();
+        }
+        if (journal != null) {
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "track4j-journal-replay");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(
+                    this::replayJournal,
+                    track4jProperties.getFlushInterval(),
+                    track4jProperties.getFlushInterval(),
+                    TimeUnit.MILLISECONDS
+            );
+        } else {
+            this.scheduler = null;
+        }
+    }
+
+    public boolean shutdown() {
+        return shutdown(track4jProperties.getShutdownTimeout());
     }
 
-    public void shutdown() {
-        worker.shutdown();
-        scheduler.shutdown();
+    public boolean shutdown(long timeoutMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        accepting = false;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        for (WriterShard shard : shards) {
+            shard.stop();
+        }
         try {
-            worker.awaitTermination(30, TimeUnit.SECONDS);
-            scheduler.awaitTermination(30, TimeUnit.SECONDS);
-            flushRemainingLogs();
+            for (WriterShard shard : shards) {
+                shard.awaitTermination(remainingMillis(deadline));
+            }
+            if (scheduler != null) {
+                scheduler.awaitTermination(remainingMillis(deadline), TimeUnit.MILLISECONDS);
+            }
         } catch (InterruptedException e) {
-            worker.shutdown();
-            scheduler.shutdown();
             Thread.currentThread().interrupt();
-        } finally {
-            repository.close();
         }
-    }
 
-    public void logRequestAsync(RequestLog requestLog) {
-        try {
-            if (!logBuffer.offer(requestLog, 5, TimeUnit.MILLISECONDS)) {
-                RequestLog oldLog = logBuffer.poll();
-                if (oldLog != null) {
-                    rescueBuffer.put(oldLog);
+        List<RequestLog> remaining = new ArrayList<>();
+        int stillWriting = 0;
+        for (WriterShard shard : shards) {
+            if (shard.isAlive()) {
+                RequestLog[] inFlight = shard.abandon();
+                if (inFlight != null) {
+                    Collections.addAll(remaining, inFlight);
                 }
-                logBuffer.put(requestLog);
-            }
-
-            if (logBuffer.size() >= track4jProperties.getBatchSize()) {
-                worker.submit(this::processBuffer);
+                stillWriting++;
             }
+        }
+        spillRemainingLogs(remaining);
+        closeJournal();
+        if (stillWriting > 0) {
+            logger.warn("Track4j: {} writer shards are still writing after the shutdown deadline, leaving the repository open",
+                    stillWriting);
+            return false;
+        }
+        repository.close();
+        return true;
+    }
 
-            if (!rescueBuffer.isEmpty()) {
-                worker.submit(this::rescueProcessBuffer);
+    public void logRequestAsync(RequestLog requestLog) {
+        if (!accepting) {
+            dropCounters.increment(DropReason.SHUTDOWN);
+            if (requestLog.getCapturedExchange() != null) {
+                requestLog.getCapturedExchange().release();
+                requestLog.setCapturedExchange(null);
             }
+            return;
+        }
+        long start = System.nanoTime();
+        shardFor(requestLog.getTraceId()).offer(requestLog);
+        metrics.recordEnqueue(System.nanoTime() - start);
+    }
 
-        } catch (InterruptedException e) {
-            logger.error("Track4j: Failed to add log to buffer with error : {}", e.getMessage());
-            Thread.currentThread().interrupt();
+    public int getBufferedCount() {
+        int buffered = 0;
+        for (WriterShard shard : shards) {
+            buffered += shard.getBuffer().size();
         }
+        return buffered;
+    }
+
+    public long getDroppedCount() {
+        return dropCounters.total();
     }
 
-    private void processBuffer() {
-        List<RequestLog> requestLogs = requestLogsListPool.get();
-        requestLogs.clear();
-        logBuffer.drainTo(requestLogs, track4jProperties.getBatchSize());
+    public DropCounters getDropCounters() {
+        return dropCounters;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
 
-        if (!requestLogs.isEmpty()) {
-            processBatch(requestLogs);
+    public int getCurrentBatchSize() {
+        return batchController.getBatchSize();
+    }
+
+    public long getCurrentFlushInterval() {
+        return batchController.getFlushIntervalMs();
+    }
+
+    public AdaptiveBatchController getBatchController() {
+        return batchController;
+    }
+
+    public Track4jMetrics getMetrics() {
+        return metrics;
+    }
+
+    public SpillJournal getJournal() {
+        return journal;
+    }
+
+    public RequestLogRepositoryAdapter getRepository() {
+        return repository;
+    }
+
+    boolean writeBatch(List<RequestLog> logs, RequestLogBuffer source) {
+        if (journal != null && source.size() >= spillWatermark) {
+            spill(logs);
+            return false;
         }
+        return processBatch(logs);
     }
 
-    private void rescueProcessBuffer() {
-        if (rescueBuffer.isEmpty()) {
-            return;
+    private WriterShard shardFor(String traceId) {
+        if (shards.length == 1) {
+            return shards[0];
         }
+        int hash = traceId != null ? traceId.hashCode() : ThreadLocalRandom.current().nextInt();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
 
-        List<RequestLog> requestLogs = requestLogsListPool.get();
-        requestLogs.clear();
-        rescueBuffer.drainTo(requestLogs, track4jProperties.getBatchSize());
+    private WriterShard[] createShards(Track4jProperties track4jProperties) {
+        int shardCount = Math.max(1, track4jProperties.getWriterShards());
+        if (shardCount > 1 && track4jProperties.getStorageType() == StorageType.SQL
+                && Track4jDataSourceManager.isSqliteHighThroughput(track4jProperties)) {
+            logger.info("Track4j: SQLite high-throughput mode writes through a single connection, using one writer shard");
+            shardCount = 1;
+        }
+        int shardCapacity = Math.max(batchController.getMaxBatchSize(), track4jProperties.getBufferCapacity() / shardCount);
+        ConnectionPinning connectionPinning = repository instanceof ConnectionPinning ? (ConnectionPinning) repository : null;
+        if (connectionPinning != null && shardCount >= track4jProperties.getMaximumPoolSize()) {
+            logger.warn("Track4j: {} writer shards pin as many connections as the pool allows ({}), consider raising track4j.hikari.maximum-pool-size",
+                    shardCount, track4jProperties.getMaximumPoolSize());
+        }
 
-        if (!requestLogs.isEmpty()) {
-            processBatch(requestLogs);
+        WriterShard[] writerShards = new WriterShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            writerShards[i] = new WriterShard(i, this, track4jProperties, shardCapacity, dropCounters,
+                    batchController, connectionPinning);
         }
+        return writerShards;
     }
 
-    private void processBatch(List<RequestLog> logs) {
+    private boolean processBatch(List<RequestLog> logs) {
+        int rows = logs.size();
         try {
+            materialize(logs);
+            long start = System.nanoTime();
             repository.saveAll(logs);
+            metrics.recordSave(rows, System.nanoTime() - start);
+            return true;
+        } catch (CircuitOpenException e) {
+            metrics.recordSaveFailure(rows);
+            if (journal != null) {
+                spill(logs);
+            } else {
+                logger.debug("Track4j: Repository unavailable, discarding {} request logs", logs.size());
+            }
         } catch (Exception e) {
-            logger.error("Track4j: Failed to save request logs", e);
+            metrics.recordSaveFailure(rows);
+            if (journal != null) {
+                logger.warn("Track4j: Failed to save request logs, spilling {} to journal: {}", logs.size(), e.getMessage());
+                spill(logs);
+            } else {
+                logger.error("Track4j: Failed to save request logs", e);
+            }
         } finally {
             clearList(logs);
         }
+        return false;
+    }
+
+    void materialize(List<RequestLog> logs) {
+        for (int i = 0; i < logs.size(); i++) {
+            RequestLog requestLog = logs.get(i);
+            if (requestLog.getCapturedExchange() != null) {
+                long start = System.nanoTime();
+                serializationService.materialize(requestLog);
+                metrics.recordSerialization(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private void spill(List<RequestLog> logs) {
+        try {
+            materialize(logs);
+            metrics.recordSpill(journal.append(logs));
+        } catch (IOException | RuntimeException e) {
+            logger.error("Track4j: Failed to spill {} request logs to journal", logs.size(), e);
+        } finally {
+            clearList(logs);
+        }
+    }
+
+    private void replayJournal() {
+        List<RequestLog> requestLogs = replayBatch;
+        try {
+            while (journal.hasPending() && getBufferedCount() < (spillWatermark >> 1) * shards.length) {
+                requestLogs.clear();
+                if (journal.readBatch(requestLogs, batchController.getBatchSize()) == 0) {
+                    break;
+                }
+                repository.saveAll(requestLogs);
+                journal.commit();
+            }
+        } catch (Exception e) {
+            logger.warn("Track4j: Journal replay paused: {}", e.getMessage());
+        } finally {
+            clearList(requestLogs);
+        }
     }
 
     private void clearList(List<RequestLog> list) {
@@ -125,12 +299,76 @@ public class RequestLogService {
         list.clear();
     }
 
-    private void flushRemainingLogs() {
-        while (!logBuffer.isEmpty()) {
-            processBuffer();
+    private void spillRemainingLogs(List<RequestLog> remaining) {
+        for (WriterShard shard : shards) {
+            RequestLogBuffer buffer = shard.getBuffer();
+            int attempts = 0;
+            while (buffer.size() > 0 && attempts < MAX_SPILL_DRAIN_ATTEMPTS) {
+                if (buffer.drainTo(remaining, Integer.MAX_VALUE) == 0) {
+                    // another thread briefly holds the consumer side, try again
+                    attempts++;
+                    Thread.yield();
+                }
+            }
+        }
+        if (remaining.isEmpty()) {
+            return;
+        }
+
+        SpillJournal target = journal;
+        try {
+            if (target == null) {
+                target = SpillJournal.open(
+                        Paths.get(track4jProperties.getJournalDirectory()),
+                        track4jProperties.getJournalSegmentSize(),
+                        track4jProperties.getJournalMaxSegments()
+                );
+            }
+            for (RequestLog requestLog : remaining) {
+                serializationService.materialize(requestLog);
+            }
+            target.append(remaining);
+            logger.warn("Track4j: Shutdown deadline reached, spilled {} request logs to {}",
+                    remaining.size(), track4jProperties.getJournalDirectory());
+        } catch (IOException e) {
+            logger.error("Track4j: Failed to spill {} request logs on shutdown", remaining.size(), e);
+        } finally {
+            if (target != null && target != journal) {
+                try {
+                    target.close();
+                } catch (IOException e) {
+                    logger.error("Track4j: Failed to close shutdown spill file", e);
+                }
+            }
         }
-        while (!rescueBuffer.isEmpty()) {
-            rescueProcessBuffer();
+    }
+
+    private static long remainingMillis(long deadline) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    private void closeJournal() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            logger.error("Track4j: Failed to close spill journal", e);
+        }
+    }
+
+    private static SpillJournal openJournal(Track4jProperties track4jProperties) {
+        try {
+            return SpillJournal.open(
+                    Paths.get(track4jProperties.getJournalDirectory()),
+                    track4jProperties.getJournalSegmentSize(),
+                    track4jProperties.getJournalMaxSegments(),
+                    track4jProperties.getJournalForceInterval()
+            );
+        } catch (IOException e) {
+            logger.error("Track4j: Failed to open spill journal, continuing without it", e);
+            return null;
         }
     }
-}
\ No newline at end of file
+}
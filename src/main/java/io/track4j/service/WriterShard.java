@@ -0,0 +1,167 @@
+package io.track4j.service;
+
+import io.track4j.objects.RequestLog;
+import io.track4j.properties.Track4jProperties;
+import io.track4j.repository.ConnectionPinning;
+import io.track4j.service.buffer.DropCounters;
+import io.track4j.service.buffer.RequestLogBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+final class WriterShard implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriterShard.class);
+
+    private final RequestLogService service;
+    private final RequestLogBuffer buffer;
+    private final ConnectionPinning connectionPinning;
+    private final AdaptiveBatchController batchController;
+    private final List<RequestLog> batch;
+    private final AtomicBoolean signalled = new AtomicBoolean(false);
+    private final Thread thread;
+    private final Object drainLock = new Object();
+    private volatile boolean running = true;
+    private boolean abandoned;
+    private RequestLog[] inFlight;
+    private int inFlightCount;
+
+    WriterShard(int index,
+                RequestLogService service,
+                Track4jProperties track4jProperties,
+                int capacity,
+                DropCounters dropCounters,
+                AdaptiveBatchController batchController,
+                ConnectionPinning connectionPinning) {
+        this.service = service;
+        this.buffer = new RequestLogBuffer(
+                capacity,
+                track4jProperties.getOverflowPolicy(),
+                track4jProperties.getOverflowBlockTimeout(),
+                dropCounters,
+                this::signal
+        );
+        this.connectionPinning = connectionPinning;
+        this.batchController = batchController;
+        this.batch = new ArrayList<>(batchController.getBatchSize());
+        this.inFlight = new RequestLog[batchController.getMaxBatchSize()];
+        this.thread = new Thread(this, "track4j-writer-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void offer(RequestLog requestLog) {
+        buffer.offer(requestLog);
+        if (buffer.size() >= batchController.getBatchSize()) {
+            signal();
+        }
+    }
+
+    void signal() {
+        if (!signalled.get() && signalled.compareAndSet(false, true)) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    boolean awaitTermination(long timeoutMs) throws InterruptedException {
+        thread.join(Math.max(1, timeoutMs));
+        return !thread.isAlive();
+    }
+
+    boolean isAlive() {
+        return thread.isAlive();
+    }
+
+    RequestLog[] abandon() {
+        // the shard missed the shutdown deadline: stop it draining and return the batch it is still writing
+        synchronized (drainLock) {
+            abandoned = true;
+            return inFlightCount > 0 ? Arrays.copyOf(inFlight, inFlightCount) : null;
+        }
+    }
+
+    RequestLogBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void run() {
+        if (connectionPinning != null) {
+            connectionPinning.pinConnection();
+        }
+        try {
+            while (running) {
+                signalled.set(false);
+                if (drainAndWrite() < batchController.getBatchSize() && running) {
+                    LockSupport.parkNanos(this, batchController.flushIntervalNanos(buffer.size(), buffer.capacity()));
+                }
+            }
+            while (drainAndWrite() > 0) {
+                // drain what is left before the thread exits
+            }
+        } finally {
+            if (connectionPinning != null) {
+                connectionPinning.releasePinnedConnection();
+            }
+        }
+    }
+
+    private int drainAndWrite() {
+        int drained = 0;
+        try {
+            synchronized (drainLock) {
+                if (abandoned) {
+                    return 0;
+                }
+                drained = buffer.drainTo(batch, batchController.getBatchSize());
+                if (drained > 0) {
+                    // materialized before publishing, so an abandoning shutdown journals complete records
+                    service.materialize(batch);
+                    publishInFlight();
+                }
+            }
+            if (drained > 0) {
+                long start = System.nanoTime();
+                if (service.writeBatch(batch, buffer)) {
+                    batchController.recordWrite(drained, System.nanoTime() - start);
+                }
+            }
+        } catch (Throwable t) {
+            logger.error("Track4j: {} failed to write a batch of {} request logs, discarding it",
+                    thread.getName(), drained, t);
+            batch.clear();
+        } finally {
+            if (drained > 0) {
+                synchronized (drainLock) {
+                    Arrays.fill(inFlight, 0, inFlightCount, null);
+                    inFlightCount = 0;
+                }
+            }
+        }
+        return drained;
+    }
+
+    private void publishInFlight() {
+        int size = batch.size();
+        if (size > inFlight.length) {
+            inFlight = new RequestLog[size];
+        }
+        for (int i = 0; i < size; i++) {
+            inFlight[i] = batch.get(i);
+        }
+        inFlightCount = size;
+    }
+}
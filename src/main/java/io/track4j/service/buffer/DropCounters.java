@@ -0,0 +1,42 @@
+package io.track4j.service.buffer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class DropCounters {
+
+    private static final DropReason[] REASONS = DropReason.values();
+
+    private final LongAdder[] counters = new LongAdder[REASONS.length];
+
+    public DropCounters() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public void increment(DropReason reason) {
+        counters[reason.ordinal()].increment();
+    }
+
+    public long get(DropReason reason) {
+        return counters[reason.ordinal()].sum();
+    }
+
+    public long total() {
+        long total = 0;
+        for (LongAdder counter : counters) {
+            total += counter.sum();
+        }
+        return total;
+    }
+
+    public Map<DropReason, Long> snapshot() {
+        Map<DropReason, Long> snapshot = new EnumMap<>(DropReason.class);
+        for (DropReason reason : REASONS) {
+            snapshot.put(reason, get(reason));
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,10 @@
+package io.track4j.service.buffer;
+
+public enum DropReason {
+    BUFFER_FULL,
+    EVICTED_OLDEST,
+    DEADLINE_EXCEEDED,
+    SUCCESS_SHED,
+    ERROR_LANE_FULL,
+    SHUTDOWN
+}
@@ -0,0 +1,135 @@
+package io.track4j.service.buffer;
+
+import io.track4j.objects.CapturedExchange;
+import io.track4j.objects.RequestLog;
+import io.track4j.properties.OverflowPolicy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+public final class RequestLogBuffer {
+
+    private static final int EVICTION_ATTEMPTS = 3;
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final MpscRingBuffer<RequestLog> ring;
+    private final MpscRingBuffer<RequestLog> errorLane;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final Runnable flushTrigger;
+    private final DropCounters dropCounters;
+    private final AtomicBoolean consuming = new AtomicBoolean(false);
+
+    public RequestLogBuffer(int capacity,
+                            OverflowPolicy overflowPolicy,
+                            long blockTimeoutMs,
+                            DropCounters dropCounters,
+                            Runnable flushTrigger) {
+        this.ring = new MpscRingBuffer<>(capacity);
+        this.errorLane = overflowPolicy == OverflowPolicy.PRIORITY_KEEP_ERRORS
+                ? new MpscRingBuffer<>(Math.max(ring.capacity() >> 3, 64))
+                : null;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.dropCounters = dropCounters;
+        this.flushTrigger = flushTrigger;
+    }
+
+    public boolean offer(RequestLog requestLog) {
+        if (ring.offer(requestLog)) {
+            return true;
+        }
+
+        switch (overflowPolicy) {
+            case DROP_OLDEST:
+                return offerEvictingOldest(requestLog);
+            case BLOCK_WITH_DEADLINE:
+                return offerWithDeadline(requestLog);
+            case PRIORITY_KEEP_ERRORS:
+                return offerKeepingErrors(requestLog);
+            case DROP_NEWEST:
+            default:
+                return drop(requestLog, DropReason.BUFFER_FULL);
+        }
+    }
+
+    public int drainTo(List<RequestLog> target, int maxElements) {
+        if (!consuming.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            int drained = 0;
+            if (errorLane != null) {
+                drained = errorLane.drainTo(target, maxElements);
+            }
+            return drained + ring.drainTo(target, maxElements - drained);
+        } finally {
+            consuming.set(false);
+        }
+    }
+
+    public int size() {
+        return errorLane != null ? ring.size() + errorLane.size() : ring.size();
+    }
+
+    public int capacity() {
+        return ring.capacity();
+    }
+
+    public DropCounters getDropCounters() {
+        return dropCounters;
+    }
+
+    private boolean offerEvictingOldest(RequestLog requestLog) {
+        for (int attempt = 0; attempt < EVICTION_ATTEMPTS; attempt++) {
+            if (consuming.compareAndSet(false, true)) {
+                try {
+                    RequestLog evicted = ring.poll();
+                    if (evicted != null) {
+                        drop(evicted, DropReason.EVICTED_OLDEST);
+                    }
+                } finally {
+                    consuming.set(false);
+                }
+            }
+            if (ring.offer(requestLog)) {
+                return true;
+            }
+        }
+        return drop(requestLog, DropReason.BUFFER_FULL);
+    }
+
+    private boolean offerWithDeadline(RequestLog requestLog) {
+        long deadline = System.nanoTime() + blockTimeoutNanos;
+        flushTrigger.run();
+        while (System.nanoTime() - deadline < 0) {
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (ring.offer(requestLog)) {
+                return true;
+            }
+        }
+        return drop(requestLog, DropReason.DEADLINE_EXCEEDED);
+    }
+
+    private boolean offerKeepingErrors(RequestLog requestLog) {
+        if (requestLog.getSuccess()) {
+            return drop(requestLog, DropReason.SUCCESS_SHED);
+        }
+        if (errorLane.offer(requestLog)) {
+            return true;
+        }
+        return drop(requestLog, DropReason.ERROR_LANE_FULL);
+    }
+
+    private boolean drop(RequestLog requestLog, DropReason reason) {
+        dropCounters.increment(reason);
+        CapturedExchange exchange = requestLog.getCapturedExchange();
+        if (exchange != null) {
+            exchange.release();
+            requestLog.setCapturedExchange(null);
+        }
+        return false;
+    }
+}
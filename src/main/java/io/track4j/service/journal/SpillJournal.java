@@ -0,0 +1,377 @@
+package io.track4j.service.journal;
+
+import io.track4j.helper.ByteArrayBuilder;
+import io.track4j.helper.RequestLogCodec;
+import io.track4j.objects.RequestLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+public final class SpillJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpillJournal.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final String CHECKPOINT_TMP_FILE = "checkpoint.tmp";
+    private static final int FRAME_HEADER_SIZE = 8;
+    private static final long DEFAULT_FORCE_INTERVAL_MS = 1000;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final long forceIntervalNanos;
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private final ByteArrayBuilder frameBuffer = new ByteArrayBuilder();
+    private final ByteArrayBuilder readBuffer = new ByteArrayBuilder();
+    private final CRC32 crc = new CRC32();
+    private final AtomicLong droppedRecords = new AtomicLong();
+
+    private long writeSegmentId;
+    private MappedByteBuffer writeSegment;
+    private int writeOffset;
+
+    private long readSegmentId;
+    private int readOffset;
+    private long mappedReadSegmentId = -1;
+    private MappedByteBuffer mappedReadSegment;
+
+    private long pendingSegmentId;
+    private int pendingOffset;
+
+    private boolean closed;
+    private long lastForce = System.nanoTime();
+
+    private SpillJournal(Path directory, int segmentSize, int maxSegments, long forceIntervalMs) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(2, maxSegments);
+        this.forceIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, forceIntervalMs));
+    }
+
+    public static SpillJournal open(Path directory, int segmentSize, int maxSegments) throws IOException {
+        return open(directory, segmentSize, maxSegments, DEFAULT_FORCE_INTERVAL_MS);
+    }
+
+    public static SpillJournal open(Path directory, int segmentSize, int maxSegments, long forceIntervalMs) throws IOException {
+        SpillJournal journal = new SpillJournal(directory, segmentSize, maxSegments, forceIntervalMs);
+        journal.recover();
+        return journal;
+    }
+
+    public synchronized int append(List<RequestLog> logs) throws IOException {
+        ensureOpen();
+        int appended = 0;
+        for (RequestLog log : logs) {
+            frameBuffer.reset();
+            frameBuffer.setLength(FRAME_HEADER_SIZE);
+            RequestLogCodec.encode(log, frameBuffer);
+
+            int frameSize = frameBuffer.length();
+            int payloadSize = frameSize - FRAME_HEADER_SIZE;
+            if (frameSize + Integer.BYTES > segmentSize) {
+                droppedRecords.incrementAndGet();
+                logger.warn("Track4j: Request log of {} bytes exceeds journal segment size, dropping it", payloadSize);
+                continue;
+            }
+            if (writeOffset + frameSize + Integer.BYTES > segmentSize) {
+                rotate();
+            }
+
+            crc.reset();
+            crc.update(frameBuffer.array(), FRAME_HEADER_SIZE, payloadSize);
+            frameBuffer.putInt(4, (int) crc.getValue());
+
+            writeSegment.position(writeOffset + Integer.BYTES);
+            writeSegment.put(frameBuffer.array(), Integer.BYTES, frameSize - Integer.BYTES);
+            // the length is written last so a torn frame is never seen as complete
+            writeSegment.putInt(writeOffset, payloadSize);
+            writeOffset += frameSize;
+            appended++;
+        }
+        if (appended > 0) {
+            long now = System.nanoTime();
+            if (now - lastForce >= forceIntervalNanos) {
+                writeSegment.force();
+                lastForce = now;
+            }
+        }
+        return appended;
+    }
+
+    public synchronized int readBatch(List<RequestLog> target, int maxRecords) throws IOException {
+        ensureOpen();
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        int read = 0;
+
+        while (read < maxRecords) {
+            ByteBuffer segment = segmentForRead(segmentId);
+            int payloadSize = offset + FRAME_HEADER_SIZE <= segmentSize ? segment.getInt(offset) : 0;
+            boolean endOfSegment = payloadSize <= 0 || offset + FRAME_HEADER_SIZE + payloadSize > segmentSize;
+
+            if (!endOfSegment) {
+                readBuffer.setLength(payloadSize);
+                ByteBuffer view = segment.duplicate();
+                view.position(offset + FRAME_HEADER_SIZE);
+                view.get(readBuffer.array(), 0, payloadSize);
+                crc.reset();
+                crc.update(readBuffer.array(), 0, payloadSize);
+                if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                    logger.warn("Track4j: Corrupt journal frame in segment {} at offset {}, skipping rest of segment", segmentId, offset);
+                    endOfSegment = true;
+                }
+            }
+
+            if (endOfSegment) {
+                if (segmentId == writeSegmentId) {
+                    break;
+                }
+                Long next = segments.higherKey(segmentId);
+                if (next == null) {
+                    break;
+                }
+                segmentId = next;
+                offset = 0;
+                continue;
+            }
+
+            target.add(RequestLogCodec.decode(readBuffer.array(), 0, payloadSize));
+            offset += FRAME_HEADER_SIZE + payloadSize;
+            read++;
+        }
+
+        pendingSegmentId = segmentId;
+        pendingOffset = offset;
+        return read;
+    }
+
+    public synchronized void commit() throws IOException {
+        ensureOpen();
+        if (pendingSegmentId < readSegmentId || !segments.containsKey(pendingSegmentId)) {
+            return;
+        }
+        readSegmentId = pendingSegmentId;
+        readOffset = pendingOffset;
+        writeCheckpoint();
+
+        while (!segments.isEmpty() && segments.firstKey() < readSegmentId) {
+            deleteSegment(segments.pollFirstEntry().getValue());
+        }
+    }
+
+    public synchronized boolean hasPending() {
+        return !closed && (readSegmentId != writeSegmentId || readOffset < writeOffset);
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    public synchronized long getDiskUsage() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        writeSegment.force();
+        writeCheckpoint();
+        closed = true;
+        writeSegment = null;
+        mappedReadSegment = null;
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                String id = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    segments.put(Long.parseLong(id), path);
+                } catch (NumberFormatException e) {
+                    logger.warn("Track4j: Ignoring unexpected journal file {}", path);
+                }
+            }
+        }
+
+        readCheckpoint();
+
+        if (segments.isEmpty()) {
+            long firstId = Math.max(1, readSegmentId);
+            writeSegmentId = firstId;
+            writeSegment = map(segmentPath(firstId));
+            segments.put(firstId, segmentPath(firstId));
+            writeOffset = 0;
+            readSegmentId = firstId;
+            readOffset = 0;
+            return;
+        }
+
+        while (segments.firstKey() < readSegmentId && segments.size() > 1) {
+            deleteSegment(segments.pollFirstEntry().getValue());
+        }
+        if (!segments.containsKey(readSegmentId)) {
+            readSegmentId = segments.firstKey();
+            readOffset = 0;
+        }
+
+        writeSegmentId = segments.lastKey();
+        writeSegment = map(segments.get(writeSegmentId));
+        writeOffset = recoverWriteOffset(writeSegment);
+    }
+
+    private int recoverWriteOffset(MappedByteBuffer segment) {
+        int offset = 0;
+        while (offset + FRAME_HEADER_SIZE <= segmentSize) {
+            int payloadSize = segment.getInt(offset);
+            if (payloadSize <= 0 || offset + FRAME_HEADER_SIZE + payloadSize > segmentSize) {
+                break;
+            }
+            readBuffer.setLength(payloadSize);
+            ByteBuffer view = segment.duplicate();
+            view.position(offset + FRAME_HEADER_SIZE);
+            view.get(readBuffer.array(), 0, payloadSize);
+            crc.reset();
+            crc.update(readBuffer.array(), 0, payloadSize);
+            if ((int) crc.getValue() != segment.getInt(offset + 4)) {
+                break;
+            }
+            offset += FRAME_HEADER_SIZE + payloadSize;
+        }
+
+        if (offset + Integer.BYTES <= segmentSize && segment.getInt(offset) != 0) {
+            logger.warn("Track4j: Truncating torn journal tail at offset {}", offset);
+            for (int i = offset; i < segmentSize; i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+        return offset;
+    }
+
+    private void rotate() throws IOException {
+        writeSegment.force();
+        lastForce = System.nanoTime();
+        long nextId = writeSegmentId + 1;
+        Path nextPath = segmentPath(nextId);
+        writeSegment = map(nextPath);
+        writeSegmentId = nextId;
+        writeOffset = 0;
+        segments.put(nextId, nextPath);
+
+        while (segments.size() > maxSegments) {
+            long oldestId = segments.firstKey();
+            if (oldestId >= readSegmentId) {
+                long lost = countRecords(oldestId, oldestId == readSegmentId ? readOffset : 0);
+                droppedRecords.addAndGet(lost);
+                logger.warn("Track4j: Journal is full, discarding segment {} with {} unreplayed records", oldestId, lost);
+                readSegmentId = segments.higherKey(oldestId);
+                readOffset = 0;
+                writeCheckpoint();
+            }
+            deleteSegment(segments.pollFirstEntry().getValue());
+        }
+    }
+
+    private long countRecords(long segmentId, int fromOffset) throws IOException {
+        ByteBuffer segment = segmentForRead(segmentId);
+        long count = 0;
+        int offset = fromOffset;
+        while (offset + FRAME_HEADER_SIZE <= segmentSize) {
+            int payloadSize = segment.getInt(offset);
+            if (payloadSize <= 0 || offset + FRAME_HEADER_SIZE + payloadSize > segmentSize) {
+                break;
+            }
+            offset += FRAME_HEADER_SIZE + payloadSize;
+            count++;
+        }
+        return count;
+    }
+
+    private ByteBuffer segmentForRead(long segmentId) throws IOException {
+        if (segmentId == writeSegmentId) {
+            return writeSegment;
+        }
+        if (mappedReadSegmentId != segmentId) {
+            try (FileChannel channel = FileChannel.open(segments.get(segmentId), StandardOpenOption.READ)) {
+                mappedReadSegment = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), segmentSize));
+            }
+            mappedReadSegmentId = segmentId;
+        }
+        return mappedReadSegment;
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (data.remaining() >= Long.BYTES + Integer.BYTES) {
+            readSegmentId = data.getLong();
+            readOffset = data.getInt();
+        }
+    }
+
+    private void writeCheckpoint() throws IOException {
+        Path tmp = directory.resolve(CHECKPOINT_TMP_FILE);
+        ByteBuffer data = ByteBuffer.allocate(Long.BYTES + Integer.BYTES);
+        data.putLong(readSegmentId).putInt(readOffset).flip();
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(data);
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteSegment(Path path) {
+        if (mappedReadSegmentId != -1 && !segments.containsKey(mappedReadSegmentId)) {
+            mappedReadSegment = null;
+            mappedReadSegmentId = -1;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Track4j: Failed to delete journal segment {}", path, e);
+        }
+    }
+
+    private Path segmentPath(long segmentId) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, segmentId, SEGMENT_SUFFIX));
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Track4j spill journal is closed");
+        }
+    }
+}
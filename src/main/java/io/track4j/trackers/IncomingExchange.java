@@ -0,0 +1,115 @@
+package io.track4j.trackers;
+
+import io.track4j.objects.LightweightRequestWrapper;
+import io.track4j.objects.LightweightResponseWrapper;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+final class IncomingExchange implements AsyncListener {
+
+    static final String ATTRIBUTE = IncomingExchange.class.getName();
+
+    private final IncomingRequestTrackingFilter filter;
+    private final String traceId;
+    private final String spanId;
+    private final String parentSpanId;
+    private final LightweightRequestWrapper requestWrapper;
+    private final LightweightResponseWrapper responseWrapper;
+    private final LocalDateTime startTime;
+    private final AtomicBoolean finished = new AtomicBoolean(false);
+    private volatile boolean success = true;
+    private volatile String errorMessage;
+    private volatile long overheadNanos;
+
+    IncomingExchange(IncomingRequestTrackingFilter filter,
+                     String traceId,
+                     String spanId,
+                     String parentSpanId,
+                     LightweightRequestWrapper requestWrapper,
+                     LightweightResponseWrapper responseWrapper,
+                     LocalDateTime startTime) {
+        this.filter = filter;
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.requestWrapper = requestWrapper;
+        this.responseWrapper = responseWrapper;
+        this.startTime = startTime;
+    }
+
+    void fail(String message) {
+        success = false;
+        if (errorMessage == null) {
+            errorMessage = message;
+        }
+    }
+
+    boolean markFinished() {
+        return finished.compareAndSet(false, true);
+    }
+
+    void addOverhead(long nanos) {
+        overheadNanos += nanos;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        filter.finish(this);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        fail("Async request timed out");
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        Throwable error = event.getThrowable();
+        fail(error != null ? error.getMessage() : "Async request failed");
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+        // a new async cycle drops the registered listeners, so register again for it
+        event.getAsyncContext().addListener(this, requestWrapper, responseWrapper);
+    }
+
+    String getTraceId() {
+        return traceId;
+    }
+
+    String getSpanId() {
+        return spanId;
+    }
+
+    String getParentSpanId() {
+        return parentSpanId;
+    }
+
+    LightweightRequestWrapper getRequestWrapper() {
+        return requestWrapper;
+    }
+
+    LightweightResponseWrapper getResponseWrapper() {
+        return responseWrapper;
+    }
+
+    LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    boolean isSuccess() {
+        return success;
+    }
+
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    long getOverheadNanos() {
+        return overheadNanos;
+    }
+}
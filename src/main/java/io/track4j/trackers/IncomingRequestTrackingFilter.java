@@ -1,25 +1,34 @@
 package io.track4j.trackers;
 
 import io.track4j.autoconfigure.Track4jServiceManager;
+import io.track4j.helper.CapturePolicy;
+import io.track4j.helper.HeaderPolicy;
 import io.track4j.objects.context.TraceContext;
+import io.track4j.objects.CapturedExchange;
+import io.track4j.objects.HeaderSnapshot;
 import io.track4j.objects.LightweightRequestWrapper;
 import io.track4j.objects.LightweightResponseWrapper;
 import io.track4j.objects.RequestLog;
 import io.track4j.objects.RequestType;
 import io.track4j.helper.HttpStatusCode;
+import io.track4j.metrics.Track4jMetrics;
 import io.track4j.properties.Track4jProperties;
 import io.track4j.service.RequestLogService;
 import io.track4j.helper.SerializationService;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.Filter;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletRequestWrapper;
 import jakarta.servlet.ServletResponse;
+import jakarta.servlet.ServletResponseWrapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.util.AntPathMatcher;
 
 import java.io.IOException;
+import java.security.Principal;
 import java.time.Duration;
 import java.time.LocalDateTime;
 
@@ -29,6 +38,8 @@ public class IncomingRequestTrackingFilter implements Filter {
     private static final Track4jProperties track4jProperties = Track4jServiceManager.getInstance().getProperties();
     private static final RequestLogService requestLogService = Track4jServiceManager.getInstance().getRequestLogService();
     private static final SerializationService serializationService = Track4jServiceManager.getInstance().getSerializationService();
+    private static final Track4jMetrics metrics = Track4jServiceManager.getInstance().getMetrics();
+    private static final CapturePolicy capturePolicy = CapturePolicy.from(track4jProperties);
 
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
@@ -37,11 +48,22 @@ public class IncomingRequestTrackingFilter implements Filter {
         HttpServletRequest httpRequest = (HttpServletRequest) request;
         HttpServletResponse httpResponse = (HttpServletResponse) response;
 
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            IncomingExchange exchange = (IncomingExchange) request.getAttribute(IncomingExchange.ATTRIBUTE);
+            if (exchange != null) {
+                continueAsync(exchange, request, response, chain);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
         if (shouldExclude(httpRequest.getRequestURI())) {
             chain.doFilter(request, response);
             return;
         }
 
+        long filterStart = System.nanoTime();
         TraceContext.TraceInfo existingTrace = TraceContext.getTraceInfo();
 
         String traceId = httpRequest.getHeader(TraceContext.getTraceIdHeader());
@@ -60,62 +82,162 @@ public class IncomingRequestTrackingFilter implements Filter {
         httpResponse.setHeader(TraceContext.getTraceIdHeader(), traceId);
         httpResponse.setHeader(TraceContext.getSpanIdHeader(), spanId);
 
-        LightweightRequestWrapper requestWrapper = new LightweightRequestWrapper(httpRequest);
-        LightweightResponseWrapper responseWrapper = new LightweightResponseWrapper(httpResponse);
+        LightweightRequestWrapper requestWrapper = new LightweightRequestWrapper(httpRequest, maxCapturedRequestBytes(), capturePolicy);
+        LightweightResponseWrapper responseWrapper = new LightweightResponseWrapper(httpResponse, maxCapturedResponseBytes(), capturePolicy);
+        IncomingExchange exchange = new IncomingExchange(this, traceId, spanId, parentSpanId,
+                requestWrapper, responseWrapper, LocalDateTime.now());
+        request.setAttribute(IncomingExchange.ATTRIBUTE, exchange);
 
-        LocalDateTime startTime = LocalDateTime.now();
-        boolean success = true;
-        String errorMessage = null;
+        long chainStart = System.nanoTime();
+        exchange.addOverhead(chainStart - filterStart);
 
         try {
             chain.doFilter(requestWrapper, responseWrapper);
         } catch (Exception e) {
-            success = false;
-            errorMessage = e.getMessage();
+            exchange.fail(e.getMessage());
         } finally {
-            LocalDateTime endTime = LocalDateTime.now();
+            long chainEnd = System.nanoTime();
+            if (requestWrapper.isAsyncStarted()) {
+                requestWrapper.getAsyncContext().addListener(exchange, requestWrapper, responseWrapper);
+                exchange.addOverhead(System.nanoTime() - chainEnd);
+            } else {
+                try {
+                    responseWrapper.copyBodyToResponse();
+                } catch (IOException | IllegalStateException e) {
+                    exchange.fail(e.getMessage());
+                }
+                exchange.addOverhead(System.nanoTime() - chainEnd);
+                finish(exchange);
+            }
+            TraceContext.clear();
+        }
+    }
 
-            long durationMs = Duration.between(startTime, endTime).toMillis();
+    void finish(IncomingExchange exchange) {
+        if (!exchange.markFinished()) {
+            return;
+        }
+        long finishStart = System.nanoTime();
+        LightweightRequestWrapper requestWrapper = exchange.getRequestWrapper();
+        LightweightResponseWrapper responseWrapper = exchange.getResponseWrapper();
+        LocalDateTime endTime = LocalDateTime.now();
+        try {
+            long durationMs = Duration.between(exchange.getStartTime(), endTime).toMillis();
             int statusCode = responseWrapper.getStatus();
-            boolean isSuccess = success && statusCode < HttpStatusCode.HTTP_SERVER_INTERNAL_ERROR.getValue();
+            boolean isSuccess = exchange.isSuccess() && statusCode < HttpStatusCode.HTTP_SERVER_INTERNAL_ERROR.getValue();
 
             RequestLog requestLog = new RequestLog();
 
-            requestLog.setTraceId(traceId);
-            requestLog.setSpanId(spanId);
-            requestLog.setParentSpanId(parentSpanId);
+            requestLog.setTraceId(exchange.getTraceId());
+            requestLog.setSpanId(exchange.getSpanId());
+            requestLog.setParentSpanId(exchange.getParentSpanId());
             requestLog.setOperationName(requestWrapper.getMethod() + " " + requestWrapper.getRequestURI());
             requestLog.setRequestType(RequestType.INCOMING);
             requestLog.setMethod(requestWrapper.getMethod());
             requestLog.setUrl(requestWrapper.getRequestURL().toString());
             requestLog.setStatusCode(statusCode);
-            requestLog.setStartTime(startTime);
+            requestLog.setStartTime(exchange.getStartTime());
             requestLog.setEndTime(endTime);
             requestLog.setDurationMs(durationMs);
             requestLog.setSuccess(isSuccess);
-            requestLog.setErrorMessage(errorMessage);
-            requestLog.setUserId(serializationService.extractUserId(requestWrapper));
-            requestLog.setClientIp(serializationService.getClientIp(requestWrapper));
+            requestLog.setErrorMessage(exchange.getErrorMessage());
+            if (track4jProperties != null && track4jProperties.isDeferredCapture()) {
+                requestLog.setCapturedExchange(captureExchange(requestWrapper, responseWrapper));
+            } else {
+                long serializationStart = System.nanoTime();
+                requestLog.setUserId(serializationService.extractUserId(requestWrapper));
+                requestLog.setClientIp(serializationService.getClientIp(requestWrapper));
 
+                if (track4jProperties == null || track4jProperties.isIncludeHeaders()) {
+                    requestLog.setRequestHeadersUtf8(serializationService.getHeadersAsJsonBytes(requestWrapper));
+                    requestLog.setResponseHeadersUtf8(serializationService.getHeadersAsJsonBytes(responseWrapper));
+                }
 
-            if (track4jProperties == null || track4jProperties.isIncludeHeaders()) {
-                requestLog.setRequestHeaders(serializationService.getHeadersAsJson(requestWrapper));
-                requestLog.setResponseHeaders(serializationService.getHeadersAsJson(responseWrapper));
+                if (track4jProperties == null || track4jProperties.isIncludeRequestBody()) {
+                    requestLog.setRequestBody(serializationService.getRequestBody(requestWrapper));
+                }
+
+                if (track4jProperties == null || track4jProperties.isIncludeResponseBody()) {
+                    requestLog.setResponseBody(serializationService.getResponseBody(responseWrapper));
+                }
+                if (metrics != null) {
+                    metrics.recordSerialization(System.nanoTime() - serializationStart);
+                }
             }
 
-            if (track4jProperties == null || track4jProperties.isIncludeRequestBody()) {
-                requestLog.setRequestBody(serializationService.getRequestBody(requestWrapper));
+            requestLogService.logRequestAsync(requestLog);
+        } finally {
+            requestWrapper.release();
+            responseWrapper.release();
+            requestWrapper.removeAttribute(IncomingExchange.ATTRIBUTE);
+            if (metrics != null) {
+                metrics.recordFilterOverhead(exchange.getOverheadNanos() + System.nanoTime() - finishStart);
             }
+        }
+    }
 
-            if (track4jProperties == null || track4jProperties.isIncludeResponseBody()) {
-                requestLog.setResponseBody(serializationService.getResponseBody(responseWrapper));
+    private void continueAsync(IncomingExchange exchange, ServletRequest request, ServletResponse response,
+                               FilterChain chain) throws IOException, ServletException {
+        TraceContext.setTraceData(exchange.getTraceId(), exchange.getSpanId());
+        try {
+            chain.doFilter(wraps(request, exchange.getRequestWrapper()) ? request : exchange.getRequestWrapper(),
+                    wraps(response, exchange.getResponseWrapper()) ? response : exchange.getResponseWrapper());
+        } catch (IOException | ServletException | RuntimeException e) {
+            exchange.fail(e.getMessage());
+            throw e;
+        } finally {
+            if (!request.isAsyncStarted()) {
+                try {
+                    exchange.getResponseWrapper().copyBodyToResponse();
+                } catch (IOException | IllegalStateException e) {
+                    exchange.fail(e.getMessage());
+                }
             }
+            TraceContext.clear();
+        }
+    }
 
-            requestLogService.logRequestAsync(requestLog);
+    private static boolean wraps(ServletRequest request, ServletRequest target) {
+        return request == target || (request instanceof ServletRequestWrapper
+                && ((ServletRequestWrapper) request).isWrapperFor(target));
+    }
 
-            responseWrapper.copyBodyToResponse();
-            TraceContext.clear();
+    private static boolean wraps(ServletResponse response, ServletResponse target) {
+        return response == target || (response instanceof ServletResponseWrapper
+                && ((ServletResponseWrapper) response).isWrapperFor(target));
+    }
+
+    private CapturedExchange captureExchange(LightweightRequestWrapper requestWrapper,
+                                             LightweightResponseWrapper responseWrapper) {
+        CapturedExchange exchange = new CapturedExchange();
+        Principal principal = requestWrapper.getUserPrincipal();
+        exchange.setPrincipalName(principal != null ? principal.getName() : null);
+        exchange.setRemoteAddr(requestWrapper.getRemoteAddr());
+        exchange.setIdentityHeaders(serializationService.identityHeaders(requestWrapper));
+        exchange.setIncludeHeaders(track4jProperties.isIncludeHeaders());
+
+        if (track4jProperties.isIncludeHeaders()) {
+            HeaderPolicy headerPolicy = serializationService.getHeaderPolicy();
+            exchange.setRequestHeaders(HeaderSnapshot.of(requestWrapper, headerPolicy));
+            exchange.setResponseHeaders(HeaderSnapshot.of(responseWrapper, headerPolicy));
+        }
+        exchange.setRequestCapture(requestWrapper.detachCaptureBuffer());
+        exchange.setResponseCapture(responseWrapper.detachCaptureBuffer());
+        return exchange;
+    }
+
+    private static int maxCapturedRequestBytes() {
+        if (track4jProperties == null) {
+            return LightweightRequestWrapper.DEFAULT_MAX_CAPTURED_BYTES;
+        }
+        return track4jProperties.isIncludeRequestBody() ? track4jProperties.getMaxCapturedRequestBytes() : 0;
+    }
+
+    private static int maxCapturedResponseBytes() {
+        if (track4jProperties == null) {
+            return LightweightResponseWrapper.DEFAULT_MAX_CAPTURED_BYTES;
         }
+        return track4jProperties.isIncludeResponseBody() ? track4jProperties.getMaxCapturedResponseBytes() : 0;
     }
 
     private boolean shouldExclude(String path) {
@@ -1,6 +1,7 @@
 package io.track4j.trackers;
 
 import io.track4j.autoconfigure.Track4jServiceManager;
+import io.track4j.helper.SerializationService;
 import io.track4j.objects.context.TraceContext;
 import io.track4j.objects.LightWeightClientHttpResponse;
 import io.track4j.objects.RequestLog;
@@ -21,11 +22,20 @@ import java.time.LocalDateTime;
 public class RestTemplateTrackingInterceptor implements ClientHttpRequestInterceptor {
 
     private final RequestLogService requestLogService;
+    private final SerializationService serializationService;
     private final Track4jProperties properties;
 
     public RestTemplateTrackingInterceptor(RequestLogService requestLogService) {
+        this(requestLogService, Track4jServiceManager.getInstance().getSerializationService(),
+                Track4jServiceManager.getInstance().getProperties());
+    }
+
+    public RestTemplateTrackingInterceptor(RequestLogService requestLogService,
+                                           SerializationService serializationService,
+                                           Track4jProperties properties) {
         this.requestLogService = requestLogService;
-        this.properties = Track4jServiceManager.getInstance().getProperties();
+        this.serializationService = serializationService;
+        this.properties = properties;
     }
 
     @Override
@@ -58,7 +68,7 @@ public class RestTemplateTrackingInterceptor implements ClientHttpRequestInterce
         requestLog.setMethod(method);
         requestLog.setUrl(url);
         if (properties.isIncludeHeaders()) {
-            requestLog.setRequestHeaders(request.getHeaders().toString());
+            requestLog.setRequestHeadersUtf8(serializationService.getHeadersAsJsonBytes(request.getHeaders()));
         }
         if (properties.isIncludeRequestBody() && body.length > 0) {
             requestLog.setRequestBody(new String(body, StandardCharsets.UTF_8));
@@ -79,7 +89,9 @@ public class RestTemplateTrackingInterceptor implements ClientHttpRequestInterce
             requestLog.setEndTime(endTime);
             requestLog.setDurationMs(durationMs);
             requestLog.setStatusCode(statusCode);
-            requestLog.setResponseHeaders(bufferingResponse.getHeaders().toString());
+            if (properties.isIncludeHeaders()) {
+                requestLog.setResponseHeadersUtf8(serializationService.getHeadersAsJsonBytes(bufferingResponse.getHeaders()));
+            }
             requestLog.setResponseBody(bufferingResponse.getBodyAsString());
             requestLog.setSuccess(bufferingResponse.getStatusCode().is2xxSuccessful());
             requestLog.setErrorMessage(null);
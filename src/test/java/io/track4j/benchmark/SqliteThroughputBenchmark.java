@@ -0,0 +1,94 @@
+package io.track4j.benchmark;
+
+import io.track4j.autoconfigure.Track4jServiceManager;
+import io.track4j.objects.RequestLog;
+import io.track4j.objects.RequestType;
+import io.track4j.properties.Track4jProperties;
+import io.track4j.repository.RequestLogRepositoryAdapter;
+import io.track4j.repository.RequestLogRepositoryFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public final class SqliteThroughputBenchmark {
+
+    private static final int THREADS = 4;
+    private static final int BATCHES = 500;
+    private static final int ROWS_PER_BATCH = 100;
+
+    private SqliteThroughputBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Track4jServiceManager.initialize();
+        Track4jProperties track4jProperties = Track4jServiceManager.getInstance().getProperties();
+        RequestLogRepositoryFactory repositoryFactory = new RequestLogRepositoryFactory(track4jProperties);
+        RequestLogRepositoryAdapter repository = repositoryFactory.getAdapter();
+        repository.initialize();
+
+        List<List<RequestLog>> batches = new ArrayList<>(BATCHES);
+        for (int i = 0; i < BATCHES; i++) {
+            batches.add(newBatch());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int first = t;
+            writers.add(executor.submit(() -> {
+                start.await();
+                for (int i = first; i < BATCHES; i += THREADS) {
+                    repository.saveAll(batches.get(i));
+                }
+                return null;
+            }));
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        for (Future<?> writer : writers) {
+            writer.get();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        executor.shutdown();
+
+        System.out.printf("high-throughput=%s: %d batches of %d rows from %d threads in %d ms (%.0f rows/s)%n",
+                track4jProperties.isSqliteHighThroughput(), BATCHES, ROWS_PER_BATCH, THREADS, elapsedMs,
+                BATCHES * ROWS_PER_BATCH * 1000.0 / Math.max(1, elapsedMs));
+
+        repository.close();
+        repositoryFactory.getDataSourceManager().close();
+        Track4jServiceManager.shutdown();
+    }
+
+    private static List<RequestLog> newBatch() {
+        List<RequestLog> batch = new ArrayList<>(ROWS_PER_BATCH);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROWS_PER_BATCH; i++) {
+            RequestLog requestLog = new RequestLog();
+            requestLog.setTraceId(UUID.randomUUID().toString());
+            requestLog.setRequestType(RequestType.INCOMING);
+            requestLog.setMethod("POST");
+            requestLog.setUrl("/api/orders/" + i);
+            requestLog.setOperationName("POST /api/orders/{id}");
+            requestLog.setRequestHeaders("{\"content-type\":[\"application/json\"]}");
+            requestLog.setRequestBody("{\"item\":\"benchmark\",\"quantity\":" + i + "}");
+            requestLog.setResponseBody("{\"status\":\"accepted\"}");
+            requestLog.setStatusCode(200);
+            requestLog.setStartTime(now);
+            requestLog.setEndTime(now);
+            requestLog.setDurationMs(1);
+            requestLog.setSuccess(true);
+            batch.add(requestLog);
+        }
+        return batch;
+    }
+}